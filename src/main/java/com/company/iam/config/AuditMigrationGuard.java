@@ -0,0 +1,80 @@
+// config/AuditMigrationGuard.java
+package com.company.iam.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.FlywayException;
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.callback.Callback;
+import org.flywaydb.core.api.callback.Context;
+import org.flywaydb.core.api.callback.Event;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Migration V2 (encodage compact d'audit_logs) : réécriture complète de la table sous verrou exclusif.
+ * Au démarrage, refusée au-delà de iam.audit.compact.max-online-rows lignes ;
+ * à lancer alors hors ligne, instances arrêtées, avec iam.audit.compact.offline=true
+ */
+@Slf4j
+@Component
+public class AuditMigrationGuard implements Callback {
+
+    static final MigrationVersion COMPACT_VERSION = MigrationVersion.fromVersion("2");
+
+    @Value("${iam.audit.compact.max-online-rows:1000000}")
+    private long maxOnlineRows;
+
+    @Value("${iam.audit.compact.offline:false}")
+    private boolean offline;
+
+    @Override
+    public boolean supports(Event event, Context context) {
+        return event == Event.BEFORE_EACH_MIGRATE;
+    }
+
+    @Override
+    public boolean canHandleInTransaction(Event event, Context context) {
+        return true;
+    }
+
+    @Override
+    public void handle(Event event, Context context) {
+        if (context.getMigrationInfo() == null
+            || !COMPACT_VERSION.equals(context.getMigrationInfo().getVersion())) {
+            return;
+        }
+        if (offline) {
+            log.warn("Running audit_logs migration V2 offline: the table stays locked until the conversion ends");
+            return;
+        }
+        long rows = countRows(context);
+        if (rows > maxOnlineRows) {
+            throw new FlywayException("audit_logs holds more than " + maxOnlineRows + " rows: migration V2 rewrites"
+                + " the whole table under an exclusive lock. Stop all instances and run it offline with"
+                + " iam.audit.compact.offline=true (IAM_AUDIT_COMPACT_OFFLINE=true), see README");
+        }
+    }
+
+    @Override
+    public String getCallbackName() {
+        return getClass().getSimpleName();
+    }
+
+    // Comptage borné : au plus maxOnlineRows + 1 lignes lues
+    private long countRows(Context context) {
+        try (PreparedStatement statement = context.getConnection().prepareStatement(
+            "SELECT count(*) FROM (SELECT 1 FROM audit_logs LIMIT ?) t")) {
+            statement.setLong(1, maxOnlineRows + 1);
+            try (ResultSet rows = statement.executeQuery()) {
+                rows.next();
+                return rows.getLong(1);
+            }
+        } catch (SQLException e) {
+            throw new FlywayException("Unable to size audit_logs before migration V2", e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+// config/KeycloakAdminClientMetrics.java
+package com.company.iam.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientRequestFilter;
+import jakarta.ws.rs.client.ClientResponseContext;
+import jakarta.ws.rs.client.ClientResponseFilter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latence des appels de l'admin client Keycloak (métrique keycloak.admin.requests)
+ */
+@RequiredArgsConstructor
+public class KeycloakAdminClientMetrics implements ClientRequestFilter, ClientResponseFilter {
+
+    private static final String START_PROPERTY = KeycloakAdminClientMetrics.class.getName() + ".start";
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public void filter(ClientRequestContext request) {
+        request.setProperty(START_PROPERTY, System.nanoTime());
+    }
+
+    @Override
+    public void filter(ClientRequestContext request, ClientResponseContext response) {
+        if (!(request.getProperty(START_PROPERTY) instanceof Long start)) {
+            return;
+        }
+        Timer.builder("keycloak.admin.requests")
+            .tag("method", request.getMethod())
+            .tag("status", String.valueOf(response.getStatus()))
+            .tag("outcome", response.getStatusInfo().getFamily().name())
+            .register(meterRegistry)
+            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
@@ -1,12 +1,29 @@
 // config/KeycloakConfig.java
 package com.company.iam.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import jakarta.ws.rs.client.Client;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.jboss.resteasy.client.jaxrs.engines.ApacheHttpClient43Engine;
+import org.jboss.resteasy.client.jaxrs.internal.ResteasyClientBuilderImpl;
 import org.keycloak.OAuth2Constants;
+import org.keycloak.admin.client.JacksonProvider;
 import org.keycloak.admin.client.Keycloak;
 import org.keycloak.admin.client.KeycloakBuilder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class KeycloakConfig {
@@ -29,11 +46,33 @@ public class KeycloakConfig {
     @Value("${keycloak.admin.password}")
     private String adminPassword;
 
+    @Value("${keycloak.admin.pool.max-total:64}")
+    private int poolSize;
+
+    @Value("${keycloak.admin.pool.max-per-route:64}")
+    private int maxPerRoute;
+
+    @Value("${keycloak.admin.pool.acquire-timeout:PT5S}")
+    private Duration acquireTimeout;
+
+    @Value("${keycloak.admin.pool.idle-eviction:PT30S}")
+    private Duration idleEviction;
+
+    @Value("${keycloak.admin.connect-timeout:PT2S}")
+    private Duration connectTimeout;
+
+    @Value("${keycloak.admin.read-timeout:PT10S}")
+    private Duration readTimeout;
+
+    /** 0 = exécuteur RESTEasy par défaut */
+    @Value("${keycloak.admin.executor.threads:0}")
+    private int executorThreads;
+
     /**
      * Keycloak Admin Client - pour la gestion des utilisateurs et rôles
      */
     @Bean
-    public Keycloak keycloakAdminClient() {
+    public Keycloak keycloakAdminClient(Client keycloakAdminRestClient) {
         return KeycloakBuilder.builder()
                 .serverUrl(serverUrl)
                 .realm("master")
@@ -42,6 +81,47 @@ public class KeycloakConfig {
                 .grantType(OAuth2Constants.CLIENT_CREDENTIALS)
                 .username(adminUsername)
                 .password(adminPassword)
+                .resteasyClient(keycloakAdminRestClient)
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Pool de connexions de l'admin client, publié dans les métriques httpcomponents.httpclient.pool.*
+     */
+    @Bean
+    public PoolingHttpClientConnectionManager keycloakAdminConnectionManager(MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(poolSize);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setValidateAfterInactivity((int) idleEviction.toMillis());
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "keycloak-admin")
+            .bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public Client keycloakAdminRestClient(PoolingHttpClientConnectionManager keycloakAdminConnectionManager,
+                                          MeterRegistry meterRegistry) {
+        CloseableHttpClient httpClient = HttpClientBuilder.create()
+            .setConnectionManager(keycloakAdminConnectionManager)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectTimeout((int) connectTimeout.toMillis())
+                .setSocketTimeout((int) readTimeout.toMillis())
+                .setConnectionRequestTimeout((int) acquireTimeout.toMillis())
+                .build())
+            .evictIdleConnections(idleEviction.toMillis(), TimeUnit.MILLISECONDS)
+            .evictExpiredConnections()
+            .build();
+
+        ResteasyClientBuilder builder = new ResteasyClientBuilderImpl()
+            .httpEngine(new ApacheHttpClient43Engine(httpClient, true));
+        if (executorThreads > 0) {
+            ExecutorService executor = Executors.newFixedThreadPool(executorThreads,
+                new CustomizableThreadFactory("keycloak-admin-"));
+            builder.executorService(executor, true);
+        }
+        builder.register(JacksonProvider.class, 100);
+        builder.register(new KeycloakAdminClientMetrics(meterRegistry));
+        return builder.build();
+    }
+}
@@ -0,0 +1,59 @@
+// config/MethodSecurityConfig.java
+package com.company.iam.config;
+
+import com.company.iam.security.CompiledPreAuthorizeManager;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+
+/**
+ * Sécurité des méthodes : @PostAuthorize, @PreFilter et @PostFilter restent gérés par Spring,
+ * seul l'intercepteur @PreAuthorize est remplacé par CompiledPreAuthorizeManager
+ */
+@Configuration
+@EnableMethodSecurity
+public class MethodSecurityConfig {
+
+    // Définitions enregistrées par @EnableMethodSecurity pour @PreAuthorize (Spring Security 6.2)
+    static final String SPRING_PRE_AUTHORIZE_ADVISOR = "preAuthorizeAuthorizationAdvisor";
+    static final String SPRING_PRE_AUTHORIZE_INTERCEPTOR = "preAuthorizeAuthorizationMethodInterceptor";
+
+    /**
+     * @PreAuthorize évalué par masques de rôles (SpEL en repli pour les expressions non compilables).
+     * Le gestionnaire est résolu au premier appel : l'advisor est créé avec les BeanPostProcessors,
+     * il ne doit pas entraîner le gestionnaire et ses dépendances avant eux.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor preAuthorizeAdvisor(ObjectProvider<CompiledPreAuthorizeManager> compiledPreAuthorizeManager) {
+        AuthorizationManager<MethodInvocation> manager = (authentication, invocation) ->
+            compiledPreAuthorizeManager.getObject().check(authentication, invocation);
+        return AuthorizationManagerBeforeMethodInterceptor.preAuthorize(manager);
+    }
+
+    /**
+     * Retire l'intercepteur @PreAuthorize de Spring, sinon chaque appel serait aussi évalué en SpEL.
+     * Échoue au démarrage si une montée de version de Spring Security en change le nom.
+     */
+    @Bean
+    static BeanDefinitionRegistryPostProcessor springPreAuthorizeRemover() {
+        return registry -> {
+            if (!registry.containsBeanDefinition(SPRING_PRE_AUTHORIZE_ADVISOR)) {
+                throw new IllegalStateException("Spring's @PreAuthorize advisor '" + SPRING_PRE_AUTHORIZE_ADVISOR
+                    + "' not found, CompiledPreAuthorizeManager cannot replace it");
+            }
+            registry.removeBeanDefinition(SPRING_PRE_AUTHORIZE_ADVISOR);
+            if (registry.containsBeanDefinition(SPRING_PRE_AUTHORIZE_INTERCEPTOR)) {
+                registry.removeBeanDefinition(SPRING_PRE_AUTHORIZE_INTERCEPTOR);
+            }
+        };
+    }
+}
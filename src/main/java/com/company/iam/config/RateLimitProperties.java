@@ -0,0 +1,44 @@
+// config/RateLimitProperties.java
+package com.company.iam.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Limites de débit par endpoint d'authentification (iam.rate-limit.*)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "iam.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /** Nombre maximal de buckets conservés en mémoire */
+    private long maximumBuckets = 100_000;
+
+    /** Un bucket inutilisé pendant cette durée est libéré */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    /** Limites par endpoint : login, refresh, introspect */
+    private Map<String, EndpointLimits> endpoints = new HashMap<>();
+
+    @Data
+    public static class EndpointLimits {
+        private Limit perIp;
+        private Limit perClient;
+    }
+
+    @Data
+    public static class Limit {
+        /** Nombre de requêtes acceptées en rafale */
+        private int capacity;
+        /** Débit de recharge soutenu */
+        private double refillPerSecond;
+    }
+}
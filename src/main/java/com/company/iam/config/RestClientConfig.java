@@ -0,0 +1,164 @@
+// config/RestClientConfig.java
+package com.company.iam.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transport HTTP sortant vers Keycloak (token, logout, introspection) : pool Apache en HTTP/1.1,
+ * client JDK multiplexé si keycloak.client.http2=true
+ */
+@Configuration
+public class RestClientConfig {
+
+    private static final String HTTP2 = "keycloak.client.http2";
+
+    @Value("${keycloak.client.pool.max-total:200}")
+    private int maxTotal;
+
+    @Value("${keycloak.client.pool.max-per-route:100}")
+    private int maxPerRoute;
+
+    @Value("${keycloak.client.pool.acquire-timeout:PT2S}")
+    private Duration acquireTimeout;
+
+    @Value("${keycloak.client.pool.idle-eviction:PT30S}")
+    private Duration idleEviction;
+
+    @Value("${keycloak.client.pool.time-to-live:PT5M}")
+    private Duration timeToLive;
+
+    @Value("${keycloak.client.connect-timeout:PT2S}")
+    private Duration connectTimeout;
+
+    @Value("${keycloak.client.read-timeout:PT5S}")
+    private Duration readTimeout;
+
+    /**
+     * Pool de connexions keep-alive, publié dans les métriques httpcomponents.httpclient.pool.*
+     */
+    @Bean
+    @ConditionalOnProperty(name = HTTP2, havingValue = "false", matchIfMissing = true)
+    public PoolingHttpClientConnectionManager keycloakConnectionManager(MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(maxTotal)
+            .setMaxConnPerRoute(maxPerRoute)
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(connectTimeout))
+                .setSocketTimeout(Timeout.of(readTimeout))
+                .setTimeToLive(TimeValue.of(timeToLive))
+                .setValidateAfterInactivity(TimeValue.of(idleEviction))
+                .build())
+            .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "keycloak").bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = HTTP2, havingValue = "false", matchIfMissing = true)
+    public CloseableHttpClient keycloakHttpClient(PoolingHttpClientConnectionManager keycloakConnectionManager) {
+        return HttpClients.custom()
+            .setConnectionManager(keycloakConnectionManager)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(acquireTimeout))
+                .setResponseTimeout(Timeout.of(readTimeout))
+                .build())
+            .evictIdleConnections(TimeValue.of(idleEviction))
+            .evictExpiredConnections()
+            .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = HTTP2, havingValue = "false", matchIfMissing = true)
+    public RestTemplate restTemplate(CloseableHttpClient keycloakHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(keycloakHttpClient));
+    }
+
+    /**
+     * HTTP/2 multiplexé par le client JDK (le client Apache classique est limité à HTTP/1.1).
+     * Pas de pool Apache : les bornes du pool s'appliquent aux requêtes simultanées (une seule
+     * route, Keycloak), avec le même délai d'attente, publiées dans keycloak.client.http2.*
+     */
+    @Bean
+    @ConditionalOnProperty(name = HTTP2, havingValue = "true")
+    public RestTemplate http2RestTemplate(MeterRegistry meterRegistry) {
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(connectTimeout)
+            .build());
+        factory.setReadTimeout(readTimeout);
+        RestTemplate restTemplate = new RestTemplate(factory);
+        restTemplate.getInterceptors().add(
+            new ConcurrencyLimit(Math.min(maxTotal, maxPerRoute), acquireTimeout, meterRegistry));
+        return restTemplate;
+    }
+
+    /**
+     * Équivalent du pool pour le client JDK : au plus {@code limit} échanges en cours,
+     * attente bornée d'un créneau libre
+     */
+    static final class ConcurrencyLimit implements ClientHttpRequestInterceptor {
+
+        private final Semaphore slots;
+        private final Duration acquireTimeout;
+        private final Counter timeouts;
+
+        ConcurrencyLimit(int limit, Duration acquireTimeout, MeterRegistry meterRegistry) {
+            this.slots = new Semaphore(limit, true);
+            this.acquireTimeout = acquireTimeout;
+            Gauge.builder("keycloak.client.http2.requests.max", () -> limit).register(meterRegistry);
+            Gauge.builder("keycloak.client.http2.requests.active", slots, s -> limit - s.availablePermits())
+                .register(meterRegistry);
+            Gauge.builder("keycloak.client.http2.requests.pending", slots, Semaphore::getQueueLength)
+                .register(meterRegistry);
+            this.timeouts = meterRegistry.counter("keycloak.client.http2.acquire.timeouts");
+        }
+
+        @Override
+        public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+                throws IOException {
+            try {
+                if (!slots.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                    timeouts.increment();
+                    throw new InterruptedIOException("Timeout waiting for a Keycloak request slot");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for a Keycloak request slot");
+            }
+            try {
+                return execution.execute(request, body);
+            } finally {
+                slots.release();
+            }
+        }
+    }
+}
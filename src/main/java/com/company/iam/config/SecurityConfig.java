@@ -1,11 +1,11 @@
 // config/SecurityConfig.java
 package com.company.iam.config;
 
+import com.company.iam.security.CachingJwtDecoder;
 import com.company.iam.security.KeycloakJwtConverter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -13,11 +13,11 @@ import org.springframework.security.web.SecurityFilterChain;
 
 @Configuration
 @EnableWebSecurity
-@EnableMethodSecurity(prePostEnabled = true)
 @RequiredArgsConstructor
 public class SecurityConfig {
 
     private final KeycloakJwtConverter keycloakJwtConverter;
+    private final CachingJwtDecoder cachingJwtDecoder;
 
     private static final String[] PUBLIC_ENDPOINTS = {
         "/api/v1/auth/login",
@@ -44,7 +44,9 @@ public class SecurityConfig {
                 .anyRequest().authenticated()
             )
             .oauth2ResourceServer(oauth2 -> oauth2
-                .jwt(jwt -> jwt.jwtAuthenticationConverter(keycloakJwtConverter))
+                .jwt(jwt -> jwt
+                    .decoder(cachingJwtDecoder)
+                    .jwtAuthenticationConverter(keycloakJwtConverter))
             );
 
         return http.build();
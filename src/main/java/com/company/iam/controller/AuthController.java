@@ -3,6 +3,7 @@ package com.company.iam.controller;
 
 import com.company.iam.model.dto.LoginRequest;
 import com.company.iam.model.dto.TokenResponse;
+import com.company.iam.security.RateLimiter;
 import com.company.iam.service.AuthenticationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -21,6 +22,7 @@ import java.util.Map;
 public class AuthController {
 
     private final AuthenticationService authenticationService;
+    private final RateLimiter rateLimiter;
 
     @PostMapping("/login")
     @Operation(summary = "Login - Obtenir un JWT Token")
@@ -29,6 +31,7 @@ public class AuthController {
             HttpServletRequest httpRequest) {
 
         String ipAddress = getClientIp(httpRequest);
+        rateLimiter.acquire("login", ipAddress, request.getClientId());
         TokenResponse response = authenticationService.login(request, ipAddress);
         return ResponseEntity.ok(response);
     }
@@ -36,8 +39,10 @@ public class AuthController {
     @PostMapping("/refresh")
     @Operation(summary = "Rafraîchir le token")
     public ResponseEntity<TokenResponse> refreshToken(
-            @RequestParam("refresh_token") String refreshToken) {
+            @RequestParam("refresh_token") String refreshToken,
+            HttpServletRequest httpRequest) {
 
+        rateLimiter.acquire("refresh", getClientIp(httpRequest), null);
         return ResponseEntity.ok(authenticationService.refreshToken(refreshToken));
     }
 
@@ -54,8 +59,10 @@ public class AuthController {
     @PostMapping("/introspect")
     @Operation(summary = "Vérifier la validité d'un token")
     public ResponseEntity<Map<String, Object>> introspect(
-            @RequestParam("token") String token) {
+            @RequestParam("token") String token,
+            HttpServletRequest httpRequest) {
 
+        rateLimiter.acquire("introspect", getClientIp(httpRequest), null);
         return ResponseEntity.ok(authenticationService.introspectToken(token));
     }
 
@@ -2,6 +2,7 @@
 package com.company.iam.controller;
 
 import com.company.iam.model.dto.RoleDTO;
+import com.company.iam.service.ETagged;
 import com.company.iam.service.RoleService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -12,6 +13,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -38,15 +40,23 @@ public class RoleController {
     @GetMapping
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER_MANAGER')")
     @Operation(summary = "Lister tous les rôles")
-    public ResponseEntity<List<RoleDTO>> getAllRoles() {
-        return ResponseEntity.ok(roleService.getAllRoles());
+    public ResponseEntity<List<RoleDTO>> getAllRoles(WebRequest request) {
+        ETagged<List<RoleDTO>> roles = roleService.getTaggedRoles();
+        if (request.checkNotModified(roles.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(roles.etag()).build();
+        }
+        return ResponseEntity.ok().eTag(roles.etag()).body(roles.value());
     }
 
     @GetMapping("/{roleName}")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Obtenir un rôle par nom")
-    public ResponseEntity<RoleDTO> getRoleByName(@PathVariable String roleName) {
-        return ResponseEntity.ok(roleService.getRoleByName(roleName));
+    public ResponseEntity<RoleDTO> getRoleByName(@PathVariable String roleName, WebRequest request) {
+        ETagged<RoleDTO> role = roleService.getTaggedRoleByName(roleName);
+        if (request.checkNotModified(role.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(role.etag()).build();
+        }
+        return ResponseEntity.ok().eTag(role.etag()).body(role.value());
     }
 
     @DeleteMapping("/{roleName}")
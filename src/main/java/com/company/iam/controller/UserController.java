@@ -1,20 +1,32 @@
 // controller/UserController.java
 package com.company.iam.controller;
 
+import com.company.iam.model.dto.BulkJobDTO;
+import com.company.iam.model.dto.BulkOperationRequest;
 import com.company.iam.model.dto.UserDTO;
+import com.company.iam.service.BulkOperationService;
+import com.company.iam.service.ETagged;
+import com.company.iam.service.UserExportService;
+import com.company.iam.service.UserImportService;
 import com.company.iam.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -25,6 +37,9 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final UserImportService userImportService;
+    private final BulkOperationService bulkOperationService;
+    private final UserExportService userExportService;
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER_MANAGER')")
@@ -38,6 +53,58 @@ public class UserController {
             .body(userService.createUser(userDTO, createdBy));
     }
 
+    @PostMapping(value = "/import",
+        consumes = {UserImportService.APPLICATION_NDJSON_VALUE, UserImportService.TEXT_CSV_VALUE},
+        produces = UserImportService.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER_MANAGER')")
+    @Operation(summary = "Importer des utilisateurs en masse (NDJSON ou CSV, un résultat NDJSON par ligne)")
+    public ResponseEntity<StreamingResponseBody> importUsers(
+            HttpServletRequest request,
+            @RequestParam(defaultValue = "false") boolean partialImport,
+            @AuthenticationPrincipal Jwt jwt) throws IOException {
+
+        String importedBy = jwt.getClaimAsString("preferred_username");
+        UserImportService.Format format = UserImportService.Format.of(MediaType.parseMediaType(request.getContentType()));
+        InputStream body = request.getInputStream();
+        StreamingResponseBody stream = out ->
+            userImportService.importUsers(body, format, partialImport, importedBy, out);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(UserImportService.APPLICATION_NDJSON_VALUE))
+            .body(stream);
+    }
+
+    @GetMapping(value = "/export", produces = UserImportService.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Exporter tous les utilisateurs (NDJSON, reprise via curseur)")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(required = false) String cursor) {
+
+        UserExportService.Cursor start = UserExportService.Cursor.decode(cursor);
+        StreamingResponseBody stream = out -> userExportService.exportUsers(start, out);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(UserImportService.APPLICATION_NDJSON_VALUE))
+            .body(stream);
+    }
+
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Lancer une opération en masse (activation, désactivation, suppression, rôles)")
+    public ResponseEntity<BulkJobDTO> submitBulkOperation(
+            @Valid @RequestBody BulkOperationRequest request,
+            @AuthenticationPrincipal Jwt jwt) {
+
+        String requestedBy = jwt.getClaimAsString("preferred_username");
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+            .body(bulkOperationService.submit(request, requestedBy));
+    }
+
+    @GetMapping("/bulk/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Suivre une opération en masse")
+    public ResponseEntity<BulkJobDTO> getBulkJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(bulkOperationService.getJob(jobId));
+    }
+
     @GetMapping
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER_MANAGER')")
     @Operation(summary = "Lister tous les utilisateurs")
@@ -51,8 +118,12 @@ public class UserController {
     @GetMapping("/{userId}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER_MANAGER') or #userId == authentication.name")
     @Operation(summary = "Obtenir un utilisateur par ID")
-    public ResponseEntity<UserDTO> getUserById(@PathVariable String userId) {
-        return ResponseEntity.ok(userService.getUserById(userId));
+    public ResponseEntity<UserDTO> getUserById(@PathVariable String userId, WebRequest request) {
+        ETagged<UserDTO> user = userService.getTaggedUserById(userId);
+        if (request.checkNotModified(user.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(user.etag()).build();
+        }
+        return ResponseEntity.ok().eTag(user.etag()).body(user.value());
     }
 
     @PutMapping("/{userId}")
@@ -107,7 +178,10 @@ public class UserController {
     @GetMapping("/search")
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER_MANAGER')")
     @Operation(summary = "Rechercher des utilisateurs")
-    public ResponseEntity<List<UserDTO>> searchUsers(@RequestParam String query) {
-        return ResponseEntity.ok(userService.searchUsers(query));
+    public ResponseEntity<List<UserDTO>> searchUsers(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        return ResponseEntity.ok(userService.searchUsers(query, limit));
     }
 }
\ No newline at end of file
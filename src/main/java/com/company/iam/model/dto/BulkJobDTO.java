@@ -0,0 +1,36 @@
+// model/dto/BulkJobDTO.java
+package com.company.iam.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkJobDTO {
+    private String id;
+    private String operation;
+    private String status;              // PENDING, RUNNING, COMPLETED, FAILED
+    private String requestedBy;
+    private Integer total;
+    private long processed;
+    private long succeeded;
+    private long failed;
+    private double throughputPerSecond;
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+    private List<Failure> failures;
+
+    @Data
+    @Builder
+    public static class Failure {
+        private String userId;
+        private String error;
+    }
+}
@@ -0,0 +1,29 @@
+// model/dto/BulkOperationRequest.java
+package com.company.iam.model.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkOperationRequest {
+
+    public enum Operation { ENABLE, DISABLE, DELETE, SET_ROLES }
+
+    @NotNull(message = "Operation is required")
+    private Operation operation;
+
+    // Sélection : liste d'identifiants ou requête de recherche Keycloak
+    private List<String> userIds;
+    private String query;
+
+    // Rôles realm cibles (SET_ROLES)
+    private List<String> roles;
+
+    @Min(value = 1, message = "Concurrency must be at least 1")
+    @Max(value = 32, message = "Concurrency must be at most 32")
+    private Integer concurrency;
+}
@@ -0,0 +1,17 @@
+// model/dto/UserImportResult.java
+package com.company.iam.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserImportResult {
+    private long line;
+    private String username;
+    private String status;              // CREATED, EXISTS, FAILED
+    private String id;
+    private String error;
+}
@@ -0,0 +1,300 @@
+// model/entity/AuditEncoding.java
+package com.company.iam.model.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Encodage compact des lignes d'audit : action et résultat en codes smallint, IP en inet,
+ * message de détail en modèle (code) + valeur. L'API Java reste en chaînes.
+ * Les codes sont aussi déclarés dans les tables audit_actions / audit_results /
+ * audit_detail_templates (migration V2) et ne doivent jamais être réattribués.
+ */
+@Slf4j
+public final class AuditEncoding {
+
+    public enum Action {
+        UNKNOWN(0),
+        LOGIN(1),
+        LOGOUT(2),
+        CREATE_USER(3),
+        UPDATE_USER(4),
+        DELETE_USER(5),
+        ENABLE_USER(6),
+        DISABLE_USER(7),
+        RESET_PASSWORD(8),
+        CREATE_ROLE(9),
+        DELETE_ROLE(10);
+
+        private final short code;
+
+        Action(int code) {
+            this.code = (short) code;
+        }
+    }
+
+    public enum Result {
+        UNKNOWN(0),
+        SUCCESS(1),
+        FAILURE(2);
+
+        private final short code;
+
+        Result(int code) {
+            this.code = (short) code;
+        }
+    }
+
+    /**
+     * Messages de détail récurrents : seul le suffixe variable est stocké
+     */
+    public enum DetailTemplate {
+        TEXT(0, ""),
+        LOGIN_SUCCESSFUL(1, "Login successful"),
+        INVALID_CREDENTIALS(2, "Invalid credentials"),
+        LOGGED_OUT(3, "User logged out"),
+        CREATED_USER(4, "Created user: "),
+        UPDATED_USER(5, "Updated user: "),
+        DELETED_USER(6, "Deleted user: "),
+        ENABLED_USER(7, "Enabled user: "),
+        DISABLED_USER(8, "Disabled user: "),
+        PASSWORD_RESET(9, "Password reset for user: "),
+        CREATED_ROLE(10, "Created role: "),
+        DELETED_ROLE(11, "Deleted role: "),
+        UPDATED_ROLES(12, "Updated roles of user: ");
+
+        private final short code;
+        private final String text;
+
+        DetailTemplate(int code, String text) {
+            this.code = (short) code;
+            this.text = text;
+        }
+    }
+
+    /**
+     * Détail décomposé : modèle et partie variable (null si le message est exactement le modèle)
+     */
+    public record Detail(Short template, String value) {
+    }
+
+    private static final Map<String, Action> ACTIONS = byName(Action.values(), Action::name);
+    private static final Map<Short, Action> ACTIONS_BY_CODE = byCode(Action.values(), action -> action.code);
+    private static final Map<String, Result> RESULTS = byName(Result.values(), Result::name);
+    private static final Map<Short, Result> RESULTS_BY_CODE = byCode(Result.values(), result -> result.code);
+    private static final Map<Short, DetailTemplate> TEMPLATES_BY_CODE =
+        byCode(DetailTemplate.values(), template -> template.code);
+
+    private static final Pattern IPV4 = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+    private static final Pattern IPV6 = Pattern.compile("[0-9a-fA-F:.]*:[0-9a-fA-F:.]*");
+
+    private static final Set<String> reportedUnknown = ConcurrentHashMap.newKeySet();
+
+    private AuditEncoding() {
+    }
+
+    public static Short actionCode(String action) {
+        if (action == null) {
+            return null;
+        }
+        Action encoded = ACTIONS.get(action);
+        if (encoded == null) {
+            reportUnknown("action", action);
+            return Action.UNKNOWN.code;
+        }
+        return encoded.code;
+    }
+
+    public static String actionName(Short code) {
+        return code == null ? null : ACTIONS_BY_CODE.getOrDefault(code, Action.UNKNOWN).name();
+    }
+
+    public static Short resultCode(String result) {
+        if (result == null) {
+            return null;
+        }
+        Result encoded = RESULTS.get(result);
+        if (encoded == null) {
+            reportUnknown("result", result);
+            return Result.UNKNOWN.code;
+        }
+        return encoded.code;
+    }
+
+    public static String resultName(Short code) {
+        return code == null ? null : RESULTS_BY_CODE.getOrDefault(code, Result.UNKNOWN).name();
+    }
+
+    /**
+     * Décomposer un message : modèle au préfixe le plus long, sinon texte libre
+     */
+    public static Detail split(String details) {
+        if (details == null) {
+            return new Detail(null, null);
+        }
+        DetailTemplate match = DetailTemplate.TEXT;
+        for (DetailTemplate template : DetailTemplate.values()) {
+            if (details.startsWith(template.text) && template.text.length() > match.text.length()) {
+                match = template;
+            }
+        }
+        String value = details.substring(match.text.length());
+        return new Detail(match.code, value.isEmpty() && match != DetailTemplate.TEXT ? null : value);
+    }
+
+    public static String compose(Short template, String value) {
+        if (template == null) {
+            return value;
+        }
+        String text = TEMPLATES_BY_CODE.getOrDefault(template, DetailTemplate.TEXT).text;
+        return value == null ? text : text + value;
+    }
+
+    /**
+     * Adresse IP littérale normalisée pour une colonne inet, ou null si la valeur n'en est pas une
+     * (pas de résolution DNS : seuls les littéraux IPv4 / IPv6 sont acceptés). Même texte que
+     * host(ip_address) relu depuis PostgreSQL, pour que les clés en mémoire et en base coïncident.
+     */
+    public static String ipAddress(String ipAddress) {
+        if (ipAddress == null) {
+            return null;
+        }
+        String candidate = ipAddress.strip();
+        boolean ipv4 = IPV4.matcher(candidate).matches();
+        if (!ipv4 && !IPV6.matcher(candidate).matches()) {
+            return null;
+        }
+        // Un octet hors bornes ferait tenter une résolution DNS par InetAddress
+        if (ipv4 && Stream.of(candidate.split("\\.")).anyMatch(octet -> Integer.parseInt(octet) > 255)) {
+            return null;
+        }
+        try {
+            InetAddress address = InetAddress.getByName(candidate);
+            return address instanceof Inet6Address ? ipv6Text(address.getAddress()) : address.getHostAddress();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Forme texte IPv6 de PostgreSQL : hexadécimal minuscule sans zéros de tête, plus longue suite
+     * d'au moins deux groupes nuls remplacée par « :: », IPv4 compatible en notation pointée.
+     * InetAddress#getHostAddress donnerait 0:0:0:0:0:0:0:1 là où la base relit ::1.
+     */
+    private static String ipv6Text(byte[] bytes) {
+        int[] words = new int[8];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = (bytes[2 * i] & 0xff) << 8 | bytes[2 * i + 1] & 0xff;
+        }
+        int bestBase = -1;
+        int bestLength = 0;
+        for (int i = 0, base = -1; i < words.length; i++) {
+            if (words[i] != 0) {
+                base = -1;
+                continue;
+            }
+            if (base < 0) {
+                base = i;
+            }
+            if (i - base + 1 > bestLength) {
+                bestBase = base;
+                bestLength = i - base + 1;
+            }
+        }
+        if (bestLength < 2) {
+            bestBase = -1;
+        }
+
+        StringBuilder text = new StringBuilder(39);
+        for (int i = 0; i < words.length; i++) {
+            if (bestBase >= 0 && i >= bestBase && i < bestBase + bestLength) {
+                if (i == bestBase) {
+                    text.append(':');
+                }
+                continue;
+            }
+            if (i > 0) {
+                text.append(':');
+            }
+            // ::a.b.c.d (les adresses ::ffff:a.b.c.d arrivent déjà en Inet4Address)
+            if (i == 6 && bestBase == 0 && bestLength == 6) {
+                text.append(bytes[12] & 0xff).append('.').append(bytes[13] & 0xff).append('.')
+                    .append(bytes[14] & 0xff).append('.').append(bytes[15] & 0xff);
+                return text.toString();
+            }
+            text.append(Integer.toHexString(words[i]));
+        }
+        if (bestBase >= 0 && bestBase + bestLength == words.length) {
+            text.append(':');
+        }
+        return text.toString();
+    }
+
+    private static void reportUnknown(String kind, String value) {
+        if (reportedUnknown.add(kind + ':' + value)) {
+            log.warn("Audit {} '{}' has no code in AuditEncoding, stored as UNKNOWN", kind, value);
+        }
+    }
+
+    private static <E> Map<String, E> byName(E[] values, Function<E, String> name) {
+        return Stream.of(values).collect(Collectors.toUnmodifiableMap(name, Function.identity()));
+    }
+
+    private static <E> Map<Short, E> byCode(E[] values, Function<E, Short> code) {
+        return Stream.of(values).collect(Collectors.toUnmodifiableMap(code, Function.identity()));
+    }
+
+    @Converter
+    public static class ActionConverter implements AttributeConverter<String, Short> {
+
+        @Override
+        public Short convertToDatabaseColumn(String action) {
+            return actionCode(action);
+        }
+
+        @Override
+        public String convertToEntityAttribute(Short code) {
+            return actionName(code);
+        }
+    }
+
+    @Converter
+    public static class ResultConverter implements AttributeConverter<String, Short> {
+
+        @Override
+        public Short convertToDatabaseColumn(String result) {
+            return resultCode(result);
+        }
+
+        @Override
+        public String convertToEntityAttribute(Short code) {
+            return resultName(code);
+        }
+    }
+
+    @Converter
+    public static class IpAddressConverter implements AttributeConverter<String, String> {
+
+        @Override
+        public String convertToDatabaseColumn(String ipAddress) {
+            return ipAddress(ipAddress);
+        }
+
+        @Override
+        public String convertToEntityAttribute(String ipAddress) {
+            return ipAddress;
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.company.iam.model.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnTransformer;
+
 import java.time.LocalDateTime;
 
 @Entity
@@ -17,7 +19,8 @@ public class AuditLog {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false)
+    @Convert(converter = AuditEncoding.ActionConverter.class)
+    @Column(nullable = false, columnDefinition = "smallint")
     private String action;              // LOGIN, LOGOUT, CREATE_USER, etc.
 
     @Column(name = "user_id")
@@ -26,7 +29,9 @@ public class AuditLog {
     @Column(name = "username")
     private String username;
 
-    @Column(name = "ip_address")
+    @Convert(converter = AuditEncoding.IpAddressConverter.class)
+    @ColumnTransformer(read = "host(ip_address)", write = "CAST(? AS inet)")
+    @Column(name = "ip_address", columnDefinition = "inet")
     private String ipAddress;
 
     @Column(name = "user_agent")
@@ -35,11 +40,22 @@ public class AuditLog {
     @Column(name = "resource")
     private String resource;
 
-    @Column(name = "result")
+    @Convert(converter = AuditEncoding.ResultConverter.class)
+    @Column(name = "result", columnDefinition = "smallint")
     private String result;              // SUCCESS, FAILURE
 
-    @Column(name = "details", columnDefinition = "TEXT")
-    private String details;
+    @Transient
+    private String details;             // stocké en modèle + valeur (detail_template, detail_value)
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @Column(name = "detail_template")
+    private Short detailTemplate;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @Column(name = "detail_value", columnDefinition = "TEXT")
+    private String detailValue;
 
     @Column(name = "timestamp", nullable = false)
     private LocalDateTime timestamp;
@@ -47,5 +63,13 @@ public class AuditLog {
     @PrePersist
     public void prePersist() {
         this.timestamp = LocalDateTime.now();
+        AuditEncoding.Detail detail = AuditEncoding.split(details);
+        this.detailTemplate = detail.template();
+        this.detailValue = detail.value();
+    }
+
+    @PostLoad
+    public void postLoad() {
+        this.details = AuditEncoding.compose(detailTemplate, detailValue);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+// repository/AuditLogBatchInserter.java
+package com.company.iam.repository;
+
+import com.company.iam.model.entity.AuditEncoding;
+import com.company.iam.model.entity.AuditLog;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Insertion JDBC par lots des logs d'audit (hors Hibernate : l'id IDENTITY empêche le batching JPA).
+ * Avec reWriteBatchedInserts, le driver PostgreSQL envoie un INSERT multi-lignes par lot.
+ * Les colonnes sont encodées comme l'entité (cf. AuditEncoding).
+ * Les partitions de la période courante sont créées avant la première insertion.
+ */
+@Repository
+@DependsOn("auditPartitionManager")
+@RequiredArgsConstructor
+public class AuditLogBatchInserter {
+
+    private static final String INSERT = "INSERT INTO audit_logs "
+        + "(action, user_id, username, ip_address, user_agent, resource, result, detail_template, detail_value, timestamp) "
+        + "VALUES (?, ?, ?, CAST(? AS inet), ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insert(List<AuditLog> auditLogs) {
+        jdbcTemplate.batchUpdate(INSERT, auditLogs, auditLogs.size(), (statement, auditLog) -> {
+            AuditEncoding.Detail detail = AuditEncoding.split(auditLog.getDetails());
+            statement.setObject(1, AuditEncoding.actionCode(auditLog.getAction()), Types.SMALLINT);
+            statement.setString(2, auditLog.getUserId());
+            statement.setString(3, auditLog.getUsername());
+            statement.setString(4, AuditEncoding.ipAddress(auditLog.getIpAddress()));
+            statement.setString(5, auditLog.getUserAgent());
+            statement.setString(6, auditLog.getResource());
+            statement.setObject(7, AuditEncoding.resultCode(auditLog.getResult()), Types.SMALLINT);
+            statement.setObject(8, detail.template(), Types.SMALLINT);
+            statement.setString(9, detail.value());
+            statement.setTimestamp(10, Timestamp.valueOf(auditLog.getTimestamp()));
+        });
+    }
+}
@@ -24,6 +24,10 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
            "AND a.username = :username AND a.timestamp > :since")
     List<AuditLog> findFailedLoginAttempts(String username, LocalDateTime since);
 
+    List<AuditLog> findByActionAndResultAndTimestampAfterOrderByTimestampAsc(
+        String action, String result, LocalDateTime after
+    );
+
     long countByUsernameAndActionAndResultAndTimestampAfter(
         String username, String action, String result, LocalDateTime after
     );
@@ -0,0 +1,109 @@
+// security/CachingJwtDecoder.java
+package com.company.iam.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.*;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Décodeur JWT du resource server avec cache des tokens déjà vérifiés, indexé par empreinte.
+ * Un hit évite parsing et vérification de signature ; exp / nbf restent contrôlés à chaque
+ * requête et le cache est vidé dès que les clés de signature du realm changent.
+ */
+@Component
+@RequiredArgsConstructor
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private final RealmJwkSource jwkSource;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}")
+    private String issuer;
+
+    @Value("${iam.jwt-cache.maximum-size:50000}")
+    private long maximumSize;
+
+    @Value("${iam.jwt-cache.max-ttl:PT5M}")
+    private Duration maxTtl;
+
+    private NimbusJwtDecoder delegate;
+    private final OAuth2TokenValidator<Jwt> timestampValidator = new JwtTimestampValidator();
+    private Cache<String, Jwt> cache;
+
+    @PostConstruct
+    void init() {
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(RealmJwkSource.SIGNING_ALGORITHMS, jwkSource));
+        // Claims validés par Spring (issuer, exp, nbf), comme le décodeur par défaut
+        processor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+        delegate = new NimbusJwtDecoder(processor);
+        delegate.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuer));
+
+        cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new TokenExpiry())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt");
+
+        jwkSource.onRotation(cache::invalidateAll);
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String key = TokenDigest.sha256(token);
+        Jwt cached = cache.getIfPresent(key);
+        if (cached != null) {
+            OAuth2TokenValidatorResult result = timestampValidator.validate(cached);
+            if (!result.hasErrors()) {
+                return cached;
+            }
+            cache.invalidate(key);
+            throw new JwtValidationException("An error occurred while attempting to decode the Jwt: "
+                + result.getErrors().iterator().next().getDescription(), result.getErrors());
+        }
+
+        Jwt jwt = delegate.decode(token);
+        cache.put(key, jwt);
+        return jwt;
+    }
+
+    private class TokenExpiry implements Expiry<String, Jwt> {
+
+        @Override
+        public long expireAfterCreate(String key, Jwt jwt, long currentTime) {
+            long ttl = maxTtl.toNanos();
+            if (jwt.getExpiresAt() != null) {
+                long untilExpiry = Duration.between(Instant.now(), jwt.getExpiresAt()).toNanos();
+                ttl = Math.min(ttl, Math.max(untilExpiry, 0));
+            }
+            return ttl;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, jwt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+// security/CompiledPreAuthorizeManager.java
+package com.company.iam.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Évaluation de @PreAuthorize par tests de masque. Les expressions de la forme
+ * {@code hasRole('A') or hasAnyRole('B', 'C') or hasAuthority('X') or #param == authentication.name}
+ * sont compilées au démarrage ; toute autre expression est évaluée en SpEL comme avant.
+ */
+@Slf4j
+@Component
+public class CompiledPreAuthorizeManager implements AuthorizationManager<MethodInvocation>, SmartInitializingSingleton {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private static final Pattern OR = Pattern.compile("\\s+or\\s+");
+    private static final Pattern ROLE_CHECK =
+        Pattern.compile("(hasRole|hasAnyRole|hasAuthority|hasAnyAuthority)\\((\\s*'[^']+'\\s*(?:,\\s*'[^']+'\\s*)*)\\)");
+    private static final Pattern QUOTED = Pattern.compile("'([^']+)'");
+    private static final Pattern PRINCIPAL_CHECK =
+        Pattern.compile("#(\\w+)\\s*==\\s*authentication\\.name|authentication\\.name\\s*==\\s*#(\\w+)");
+
+    private final RoleBitRegistry registry;
+    private final ApplicationContext applicationContext;
+
+    private final PreAuthorizeAuthorizationManager fallback = new PreAuthorizeAuthorizationManager();
+    private final ParameterNameDiscoverer parameterNames = new DefaultParameterNameDiscoverer();
+    private final Map<Method, Rule> rules = new ConcurrentHashMap<>();
+
+    /**
+     * Règle compilée : accordée si l'un des bits est présent ou si l'argument désigné
+     * est le nom de l'utilisateur authentifié
+     */
+    private record Rule(Kind kind, long anyOfMask, int principalArgument) {
+
+        static final Rule NONE = new Rule(Kind.NONE, 0, -1);
+        static final Rule SPEL = new Rule(Kind.SPEL, 0, -1);
+    }
+
+    private enum Kind { NONE, SPEL, COMPILED }
+
+    /**
+     * Le repli SpEL résout les références {@code @bean} via le contexte d'application
+     */
+    public CompiledPreAuthorizeManager(RoleBitRegistry registry, ApplicationContext applicationContext,
+                                       ObjectProvider<MethodSecurityExpressionHandler> expressionHandler) {
+        this.registry = registry;
+        this.applicationContext = applicationContext;
+        fallback.setExpressionHandler(expressionHandler.getIfAvailable(() -> {
+            DefaultMethodSecurityExpressionHandler handler = new DefaultMethodSecurityExpressionHandler();
+            handler.setApplicationContext(applicationContext);
+            return handler;
+        }));
+    }
+
+    /**
+     * Compiler les règles de toutes nos méthodes annotées, puis figer les positions de bits
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        int compiled = 0;
+        int total = 0;
+        for (String beanName : applicationContext.getBeanDefinitionNames()) {
+            Class<?> type = applicationContext.getType(beanName);
+            if (type == null || !type.getName().startsWith("com.company.iam")) {
+                continue;
+            }
+            Class<?> userClass = ClassUtils.getUserClass(type);
+            for (Method method : ReflectionUtils.getUniqueDeclaredMethods(userClass, ReflectionUtils.USER_DECLARED_METHODS)) {
+                Rule rule = rules.computeIfAbsent(method, m -> compile(m, userClass));
+                if (rule.kind() != Kind.NONE) {
+                    total++;
+                    compiled += rule.kind() == Kind.COMPILED ? 1 : 0;
+                }
+            }
+        }
+        registry.freeze();
+        log.info("Compiled {} of {} @PreAuthorize rules to role masks", compiled, total);
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        Class<?> targetClass = invocation.getThis() != null
+            ? AopUtils.getTargetClass(invocation.getThis())
+            : invocation.getMethod().getDeclaringClass();
+        Method method = AopUtils.getMostSpecificMethod(invocation.getMethod(), targetClass);
+        Rule rule = rules.computeIfAbsent(method, m -> compile(m, targetClass));
+
+        if (rule.kind() == Kind.NONE) {
+            return null;
+        }
+        if (rule.kind() == Kind.SPEL) {
+            return fallback.check(authentication, invocation);
+        }
+
+        Authentication current = authentication.get();
+        if (current == null) {
+            return DENIED;
+        }
+        long mask = current instanceof RoleMaskAuthenticationToken token
+            ? token.getRoleMask()
+            : registry.maskOf(current.getAuthorities());
+        if ((mask & rule.anyOfMask()) != 0) {
+            return GRANTED;
+        }
+        if (rule.principalArgument() >= 0
+                && Objects.equals(invocation.getArguments()[rule.principalArgument()], current.getName())) {
+            return GRANTED;
+        }
+        return DENIED;
+    }
+
+    private Rule compile(Method method, Class<?> targetClass) {
+        PreAuthorize annotation = AnnotatedElementUtils.findMergedAnnotation(method, PreAuthorize.class);
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(targetClass, PreAuthorize.class);
+        }
+        if (annotation == null) {
+            return Rule.NONE;
+        }
+
+        long mask = 0;
+        int principalArgument = -1;
+        for (String term : OR.split(annotation.value().trim())) {
+            Matcher roleCheck = ROLE_CHECK.matcher(term);
+            Matcher principalCheck = PRINCIPAL_CHECK.matcher(term);
+            if (roleCheck.matches()) {
+                boolean roles = roleCheck.group(1).contains("Role");
+                Matcher quoted = QUOTED.matcher(roleCheck.group(2));
+                while (quoted.find()) {
+                    String name = quoted.group(1);
+                    int bit = registry.register(roles && !name.startsWith("ROLE_") ? "ROLE_" + name : name);
+                    if (bit < 0) {
+                        return Rule.SPEL;
+                    }
+                    mask |= 1L << bit;
+                }
+            } else if (principalCheck.matches() && principalArgument < 0) {
+                String parameter = principalCheck.group(1) != null ? principalCheck.group(1) : principalCheck.group(2);
+                principalArgument = indexOf(method, parameter);
+                if (principalArgument < 0) {
+                    return Rule.SPEL;
+                }
+            } else {
+                return Rule.SPEL;
+            }
+        }
+        return new Rule(Kind.COMPILED, mask, principalArgument);
+    }
+
+    private int indexOf(Method method, String parameter) {
+        String[] names = parameterNames.getParameterNames(method);
+        return names != null ? Arrays.asList(names).indexOf(parameter) : -1;
+    }
+}
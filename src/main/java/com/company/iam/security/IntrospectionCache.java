@@ -0,0 +1,137 @@
+// security/IntrospectionCache.java
+package com.company.iam.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Cache des résultats d'introspection, indexé par l'empreinte SHA-256 du token.
+ * La durée de vie d'une entrée ne dépasse jamais l'expiration ("exp") du token.
+ */
+@Component
+@RequiredArgsConstructor
+public class IntrospectionCache {
+
+    private final MeterRegistry meterRegistry;
+    private final TokenRevocationRegistry revocationRegistry;
+
+    @Value("${keycloak.introspection.cache.maximum-size:100000}")
+    private long maximumSize;
+
+    @Value("${keycloak.introspection.cache.max-ttl:PT5M}")
+    private Duration maxTtl;
+
+    @Value("${keycloak.introspection.cache.inactive-ttl:PT30S}")
+    private Duration inactiveTtl;
+
+    private Cache<String, Map<String, Object>> cache;
+    private final Map<String, Set<String>> keysBySession = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new TokenExpiry())
+            .removalListener((String key, Map<String, Object> result, RemovalCause cause) -> unindex(key, result))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "introspection");
+    }
+
+    /**
+     * Résultat en cache, ou calculé par l'introspecteur puis mis en cache
+     */
+    public Map<String, Object> get(String token, Function<String, Map<String, Object>> introspector) {
+        Map<String, Object> result = cache.get(TokenDigest.sha256(token), key -> {
+            Map<String, Object> computed = introspector.apply(token);
+            if (computed == null) {
+                return null;
+            }
+            String sessionId = sessionIdOf(computed);
+            if (sessionId != null) {
+                keysBySession.computeIfAbsent(sessionId, sid -> ConcurrentHashMap.newKeySet()).add(key);
+            }
+            return Collections.unmodifiableMap(computed);
+        });
+
+        if (result != null && revocationRegistry.isRevoked(sessionIdOf(result))) {
+            return LocalTokenIntrospector.inactive();
+        }
+        return result;
+    }
+
+    /**
+     * Retirer du cache tous les résultats d'une session (logout)
+     */
+    public void evictSession(String sessionId) {
+        if (sessionId == null) {
+            return;
+        }
+        Set<String> keys = keysBySession.remove(sessionId);
+        if (keys != null) {
+            cache.invalidateAll(keys);
+        }
+    }
+
+    private void unindex(String key, Map<String, Object> result) {
+        String sessionId = result != null ? sessionIdOf(result) : null;
+        if (sessionId != null) {
+            keysBySession.computeIfPresent(sessionId, (sid, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    private static String sessionIdOf(Map<String, Object> result) {
+        Object sid = result.get("sid");
+        if (sid == null) {
+            sid = result.get("session_state");
+        }
+        return sid != null ? sid.toString() : null;
+    }
+
+    private class TokenExpiry implements Expiry<String, Map<String, Object>> {
+
+        @Override
+        public long expireAfterCreate(String key, Map<String, Object> result, long currentTime) {
+            if (!Boolean.TRUE.equals(result.get("active"))) {
+                return inactiveTtl.toNanos();
+            }
+            long ttl = maxTtl.toNanos();
+            if (result.get("exp") instanceof Number exp) {
+                long untilExpiry = Duration.ofSeconds(exp.longValue())
+                    .minusMillis(System.currentTimeMillis()).toNanos();
+                ttl = Math.min(ttl, Math.max(untilExpiry, 0));
+            }
+            return ttl;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Map<String, Object> result,
+                                      long currentTime, long currentDuration) {
+            return expireAfterCreate(key, result, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Map<String, Object> result,
+                                    long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
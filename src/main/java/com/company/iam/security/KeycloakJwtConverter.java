@@ -1,51 +1,103 @@
 // security/KeycloakJwtConverter.java
 package com.company.iam.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Conversion JWT → authentification. Les authorities calculées sont mises en cache par token
+ * (jti, à défaut empreinte du token) jusqu'à son expiration, et les instances d'authority
+ * sont partagées entre tokens : un token déjà vu ne provoque presque aucune allocation.
+ */
 @Component
+@RequiredArgsConstructor
 public class KeycloakJwtConverter implements Converter<Jwt, AbstractAuthenticationToken> {
 
-    private final JwtGrantedAuthoritiesConverter defaultConverter = 
+    private final MeterRegistry meterRegistry;
+    private final RoleBitRegistry roleBitRegistry;
+
+    @Value("${iam.authority-cache.maximum-size:100000}")
+    private long maximumSize;
+
+    @Value("${iam.authority-cache.max-ttl:PT5M}")
+    private Duration maxTtl;
+
+    private final JwtGrantedAuthoritiesConverter defaultConverter =
         new JwtGrantedAuthoritiesConverter();
 
+    // Authorities internées : nom de rôle realm, "clientId\0rôle", ou authority de scope
+    private final Map<String, GrantedAuthority> realmAuthorities = new ConcurrentHashMap<>();
+    private final Map<String, GrantedAuthority> clientAuthorities = new ConcurrentHashMap<>();
+    private final Map<String, GrantedAuthority> scopeAuthorities = new ConcurrentHashMap<>();
+
+    private Cache<String, CachedAuthorities> cache;
+
+    private record CachedAuthorities(Set<GrantedAuthority> authorities, long roleMask, Instant expiresAt) {
+    }
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new TokenExpiry())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "authorities");
+    }
+
     @Override
     public AbstractAuthenticationToken convert(Jwt jwt) {
-        // Extraction des rôles depuis le realm_access et resource_access
-        Collection<GrantedAuthority> authorities = Stream.concat(
-            defaultConverter.convert(jwt).stream(),
-            extractKeycloakRoles(jwt).stream()
-        ).collect(Collectors.toSet());
+        String key = jwt.getId() != null ? jwt.getId() : TokenDigest.sha256(jwt.getTokenValue());
+        CachedAuthorities cached = cache.get(key, k -> {
+            Set<GrantedAuthority> authorities = computeAuthorities(jwt);
+            return new CachedAuthorities(authorities, roleBitRegistry.maskOf(authorities), jwt.getExpiresAt());
+        });
 
-        return new JwtAuthenticationToken(jwt, authorities, getPrincipalName(jwt));
+        return new RoleMaskAuthenticationToken(jwt, cached.authorities(), getPrincipalName(jwt), cached.roleMask());
+    }
+
+    private Set<GrantedAuthority> computeAuthorities(Jwt jwt) {
+        Set<GrantedAuthority> authorities = new HashSet<>();
+        for (GrantedAuthority scope : defaultConverter.convert(jwt)) {
+            authorities.add(scopeAuthorities.computeIfAbsent(scope.getAuthority(), name -> scope));
+        }
+        // Extraction des rôles depuis le realm_access et resource_access
+        extractKeycloakRoles(jwt, authorities);
+        return Collections.unmodifiableSet(authorities);
     }
 
     /**
      * Extrait les rôles Keycloak du token JWT
      */
     @SuppressWarnings("unchecked")
-    private Collection<GrantedAuthority> extractKeycloakRoles(Jwt jwt) {
-        List<GrantedAuthority> roles = new ArrayList<>();
-
+    private void extractKeycloakRoles(Jwt jwt, Set<GrantedAuthority> roles) {
         // Rôles du Realm
         Map<String, Object> realmAccess = jwt.getClaimAsMap("realm_access");
         if (realmAccess != null) {
             List<String> realmRoles = (List<String>) realmAccess.get("roles");
             if (realmRoles != null) {
-                realmRoles.stream()
-                    .map(role -> new SimpleGrantedAuthority("ROLE_" + role.toUpperCase()))
-                    .forEach(roles::add);
+                for (String role : realmRoles) {
+                    roles.add(realmAuthorities.computeIfAbsent(role,
+                        r -> new SimpleGrantedAuthority("ROLE_" + r.toUpperCase())));
+                }
             }
         }
 
@@ -56,20 +108,44 @@ public class KeycloakJwtConverter implements Converter<Jwt, AbstractAuthenticati
                 Map<String, Object> clientRolesMap = (Map<String, Object>) clientRoles;
                 List<String> clientRoleList = (List<String>) clientRolesMap.get("roles");
                 if (clientRoleList != null) {
-                    clientRoleList.stream()
-                        .map(role -> new SimpleGrantedAuthority(
-                            "ROLE_" + clientId.toUpperCase() + "_" + role.toUpperCase()))
-                        .forEach(roles::add);
+                    for (String role : clientRoleList) {
+                        roles.add(clientAuthorities.computeIfAbsent(clientId + '\0' + role,
+                            k -> new SimpleGrantedAuthority(
+                                "ROLE_" + clientId.toUpperCase() + "_" + role.toUpperCase())));
+                    }
                 }
             });
         }
-
-        return roles;
     }
 
     private String getPrincipalName(Jwt jwt) {
-        return jwt.getClaimAsString("preferred_username") != null 
-            ? jwt.getClaimAsString("preferred_username") 
+        return jwt.getClaimAsString("preferred_username") != null
+            ? jwt.getClaimAsString("preferred_username")
             : jwt.getSubject();
     }
-}
\ No newline at end of file
+
+    private class TokenExpiry implements Expiry<String, CachedAuthorities> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedAuthorities value, long currentTime) {
+            long ttl = maxTtl.toNanos();
+            if (value.expiresAt() != null) {
+                long untilExpiry = Duration.between(Instant.now(), value.expiresAt()).toNanos();
+                ttl = Math.min(ttl, Math.max(untilExpiry, 0));
+            }
+            return ttl;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedAuthorities value,
+                                      long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedAuthorities value,
+                                    long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
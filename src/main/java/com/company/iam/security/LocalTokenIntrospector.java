@@ -0,0 +1,119 @@
+// security/LocalTokenIntrospector.java
+package com.company.iam.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.nimbusds.jwt.proc.ConfigurableJWTProcessor;
+import com.nimbusds.jwt.proc.DefaultJWTClaimsVerifier;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.ParseException;
+import java.util.*;
+
+/**
+ * Introspection locale (RFC 7662) des access tokens signés par le realm :
+ * signature vérifiée contre le JWKS, puis expiration, issuer et audience.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LocalTokenIntrospector {
+
+    private final TokenRevocationRegistry revocationRegistry;
+    private final RealmJwkSource jwkSource;
+
+    @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}")
+    private String issuer;
+
+    @Value("${keycloak.introspection.audiences:${keycloak.client.id}}")
+    private List<String> audiences;
+
+    private ConfigurableJWTProcessor<SecurityContext> jwtProcessor;
+
+    @PostConstruct
+    void init() {
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(RealmJwkSource.SIGNING_ALGORITHMS, jwkSource));
+        processor.setJWTClaimsSetVerifier(new DefaultJWTClaimsVerifier<>(
+            new JWTClaimsSet.Builder().issuer(issuer).build(),
+            Set.of("exp")
+        ));
+        jwtProcessor = processor;
+    }
+
+    /**
+     * Introspecter un token localement.
+     *
+     * @return la réponse RFC 7662, ou vide si le token doit être introspecté par Keycloak
+     *         (token opaque, algorithme symétrique, kid inconnu ou JWKS indisponible)
+     */
+    public Optional<Map<String, Object>> introspect(String token) {
+        SignedJWT jwt;
+        try {
+            jwt = SignedJWT.parse(token);
+        } catch (ParseException e) {
+            return Optional.empty();
+        }
+
+        JWKMatcher matcher = JWKMatcher.forJWSHeader(jwt.getHeader());
+        if (matcher == null) {
+            return Optional.empty();
+        }
+
+        try {
+            if (jwkSource.get(new JWKSelector(matcher), null).isEmpty()) {
+                log.debug("Unknown signing key {}, falling back to remote introspection",
+                    jwt.getHeader().getKeyID());
+                return Optional.empty();
+            }
+
+            JWTClaimsSet claims = jwtProcessor.process(jwt, null);
+            if (!hasAcceptedAudience(claims)
+                    || revocationRegistry.isRevoked(TokenRevocationRegistry.sessionIdOf(claims))) {
+                return Optional.of(inactive());
+            }
+            return Optional.of(toIntrospectionResponse(claims));
+
+        } catch (KeySourceException e) {
+            log.warn("JWKS unavailable, falling back to remote introspection: {}", e.getMessage());
+            return Optional.empty();
+        } catch (BadJOSEException | JOSEException e) {
+            log.debug("Token rejected by local introspection: {}", e.getMessage());
+            return Optional.of(inactive());
+        }
+    }
+
+    public static Map<String, Object> inactive() {
+        return Map.of("active", false);
+    }
+
+    private boolean hasAcceptedAudience(JWTClaimsSet claims) {
+        if (audiences.isEmpty()) {
+            return true;
+        }
+        Object authorizedParty = claims.getClaim("azp");
+        return audiences.contains(authorizedParty)
+            || claims.getAudience().stream().anyMatch(audiences::contains);
+    }
+
+    private Map<String, Object> toIntrospectionResponse(JWTClaimsSet claims) {
+        Map<String, Object> response = new LinkedHashMap<>(claims.toJSONObject());
+        response.put("active", true);
+        response.putIfAbsent("client_id", claims.getClaim("azp"));
+        response.putIfAbsent("username", claims.getClaim("preferred_username"));
+        response.putIfAbsent("token_type", claims.getClaim("typ"));
+        return response;
+    }
+}
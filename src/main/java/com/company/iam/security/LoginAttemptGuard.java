@@ -0,0 +1,203 @@
+// security/LoginAttemptGuard.java
+package com.company.iam.security;
+
+import com.company.iam.exception.IamException;
+import com.company.iam.model.entity.AuditEncoding;
+import com.company.iam.model.entity.AuditLog;
+import com.company.iam.repository.AuditLogRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Protection anti brute-force : fenêtres glissantes en mémoire des échecs de connexion,
+ * par utilisateur et par adresse IP. Les comptes ou IP bloqués sont rejetés avant
+ * tout appel Keycloak ou écriture en base. Le nombre de clés suivies est borné
+ * (bourrage d'identifiants avec des noms aléatoires) et une clé expire une fenêtre
+ * après son dernier échec.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoginAttemptGuard {
+
+    private static final int STRIPES = 64;
+
+    private final AuditLogRepository auditLogRepository;
+
+    @Value("${iam.login-guard.window:PT15M}")
+    private Duration window;
+
+    @Value("${iam.login-guard.max-failures-per-user:5}")
+    private int maxFailuresPerUser;
+
+    @Value("${iam.login-guard.max-failures-per-ip:20}")
+    private int maxFailuresPerIp;
+
+    @Value("${iam.login-guard.maximum-keys:100000}")
+    private long maximumKeys;
+
+    private final ReentrantLock[] locks = newLocks();
+    private Map<String, ArrayDeque<Long>> userFailures;
+    private Map<String, ArrayDeque<Long>> ipFailures;
+
+    @PostConstruct
+    void init() {
+        userFailures = newFailureMap();
+        ipFailures = newFailureMap();
+    }
+
+    /**
+     * Rejeter la tentative si l'utilisateur ou l'IP a dépassé son seuil d'échecs
+     */
+    public void checkAllowed(String username, String ipAddress) {
+        long now = System.currentTimeMillis();
+        if (isLocked(userFailures, normalize(username), maxFailuresPerUser, now)) {
+            log.warn("Login rejected, account temporarily locked: {}", username);
+            throw new IamException("Account temporarily locked", HttpStatus.LOCKED);
+        }
+        if (isLocked(ipFailures, ipKey(ipAddress), maxFailuresPerIp, now)) {
+            log.warn("Login rejected, too many failures from IP: {}", ipAddress);
+            throw new IamException("Too many failed login attempts", HttpStatus.TOO_MANY_REQUESTS);
+        }
+    }
+
+    public boolean isUsernameLocked(String username) {
+        return isLocked(userFailures, normalize(username), maxFailuresPerUser, System.currentTimeMillis());
+    }
+
+    public void recordFailure(String username, String ipAddress) {
+        long now = System.currentTimeMillis();
+        record(userFailures, normalize(username), maxFailuresPerUser, now);
+        record(ipFailures, ipKey(ipAddress), maxFailuresPerIp, now);
+    }
+
+    public void recordSuccess(String username) {
+        String key = normalize(username);
+        if (key == null) {
+            return;
+        }
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            userFailures.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reconstruire les fenêtres depuis audit_logs au démarrage
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        LocalDateTime since = LocalDateTime.now().minus(window);
+        try {
+            List<AuditLog> failures = auditLogRepository
+                .findByActionAndResultAndTimestampAfterOrderByTimestampAsc("LOGIN", "FAILURE", since);
+            for (AuditLog failure : failures) {
+                long timestamp = failure.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                record(userFailures, normalize(failure.getUsername()), maxFailuresPerUser, timestamp);
+                record(ipFailures, ipKey(failure.getIpAddress()), maxFailuresPerIp, timestamp);
+            }
+            log.info("Login guard rebuilt from {} failed attempts", failures.size());
+        } catch (Exception e) {
+            log.warn("Could not rebuild login guard from audit logs: {}", e.getMessage());
+        }
+    }
+
+    private boolean isLocked(Map<String, ArrayDeque<Long>> failures, String key, int limit, long now) {
+        if (key == null) {
+            return false;
+        }
+        ArrayDeque<Long> attempts = failures.get(key);
+        if (attempts == null) {
+            return false;
+        }
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            evictExpired(attempts, now);
+            return attempts.size() >= limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(Map<String, ArrayDeque<Long>> failures, String key, int limit, long timestamp) {
+        if (key == null) {
+            return;
+        }
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            // compute (et non computeIfAbsent) : chaque échec repousse l'expiration de la clé
+            failures.compute(key, (k, attempts) -> {
+                ArrayDeque<Long> recent = attempts != null ? attempts : new ArrayDeque<>(limit);
+                recent.addLast(timestamp);
+                // Seules les "limit" dernières tentatives comptent pour le blocage
+                while (recent.size() > limit) {
+                    recent.pollFirst();
+                }
+                return recent;
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evictExpired(ArrayDeque<Long> attempts, long now) {
+        long windowStart = now - window.toMillis();
+        while (!attempts.isEmpty() && attempts.peekFirst() <= windowStart) {
+            attempts.pollFirst();
+        }
+    }
+
+    private ReentrantLock lockFor(String key) {
+        return locks[(key.hashCode() & 0x7fffffff) % STRIPES];
+    }
+
+    private static String normalize(String username) {
+        return username != null ? username.toLowerCase(Locale.ROOT) : null;
+    }
+
+    /**
+     * Clé IP sous la forme relue depuis audit_logs (host(inet)), pour que rebuild() retrouve
+     * les fenêtres alimentées en direct ; une valeur non littérale reste telle quelle
+     */
+    private static String ipKey(String ipAddress) {
+        String normalized = AuditEncoding.ipAddress(ipAddress);
+        return normalized != null ? normalized : ipAddress;
+    }
+
+    private Map<String, ArrayDeque<Long>> newFailureMap() {
+        return Caffeine.newBuilder()
+            .maximumSize(maximumKeys)
+            .expireAfterWrite(window)
+            .<String, ArrayDeque<Long>>build()
+            .asMap();
+    }
+
+    private static ReentrantLock[] newLocks() {
+        ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        return stripes;
+    }
+}
@@ -0,0 +1,97 @@
+// security/RateLimiter.java
+package com.company.iam.security;
+
+import com.company.iam.config.RateLimitProperties;
+import com.company.iam.config.RateLimitProperties.EndpointLimits;
+import com.company.iam.config.RateLimitProperties.Limit;
+import com.company.iam.exception.RateLimitExceededException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limiteur de débit token-bucket sans verrou (algorithme GCRA : un seul AtomicLong
+ * par bucket), indexé par IP cliente et par client_id.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RateLimiter {
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private Cache<String, Bucket> buckets;
+    private Counter rejections;
+
+    @PostConstruct
+    void init() {
+        buckets = Caffeine.newBuilder()
+            .maximumSize(properties.getMaximumBuckets())
+            .expireAfterAccess(properties.getIdleTimeout())
+            .build();
+        rejections = meterRegistry.counter("iam.rate-limit.rejections");
+    }
+
+    /**
+     * Consommer un jeton pour l'endpoint, sinon lever une RateLimitExceededException (429)
+     */
+    public void acquire(String endpoint, String ipAddress, String clientId) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        EndpointLimits limits = properties.getEndpoints().get(endpoint);
+        if (limits == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        check(endpoint + "|ip|" + ipAddress, limits.getPerIp(), ipAddress, now);
+        check(endpoint + "|client|" + clientId, limits.getPerClient(), clientId, now);
+    }
+
+    private void check(String key, Limit limit, String subject, long now) {
+        if (limit == null || subject == null || limit.getCapacity() <= 0 || limit.getRefillPerSecond() <= 0) {
+            return;
+        }
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / limit.getRefillPerSecond());
+        long waitNanos = buckets.get(key, k -> new Bucket())
+            .tryAcquire(now, interval, interval * limit.getCapacity());
+
+        if (waitNanos > 0) {
+            rejections.increment();
+            log.debug("Rate limit exceeded for {}", key);
+            throw new RateLimitExceededException(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1));
+        }
+    }
+
+    static final class Bucket {
+
+        /** Instant théorique d'arrivée de la prochaine requête conforme */
+        private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+        /**
+         * @return 0 si un jeton a été consommé, sinon l'attente en nanosecondes avant le prochain jeton
+         */
+        long tryAcquire(long now, long interval, long burst) {
+            while (true) {
+                long tat = theoreticalArrival.get();
+                long next = (tat == Long.MIN_VALUE || tat < now ? now : tat) + interval;
+                long allowedAt = next - burst;
+                if (allowedAt > now) {
+                    return allowedAt - now;
+                }
+                if (theoreticalArrival.compareAndSet(tat, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
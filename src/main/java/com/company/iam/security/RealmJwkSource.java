@@ -0,0 +1,196 @@
+// security/RealmJwkSource.java
+package com.company.iam.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.RemoteKeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.DefaultResourceRetriever;
+import com.nimbusds.jose.util.ResourceRetriever;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Clés de signature du realm (JWKS), partagées par le décodeur JWT et l'introspection locale.
+ * Le jeu de clés est chargé au démarrage puis rafraîchi en arrière-plan : une requête n'attend
+ * Keycloak que pour un kid inconnu (un seul re-téléchargement à la fois, au plus un par
+ * intervalle minimal). En cas d'indisponibilité, le dernier jeu valide reste servi.
+ * Les abonnés sont prévenus quand le jeu de clés change (rotation, révocation d'une clé).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RealmJwkSource implements JWKSource<SecurityContext> {
+
+    /**
+     * Algorithmes asymétriques acceptés pour les tokens du realm
+     */
+    public static final Set<JWSAlgorithm> SIGNING_ALGORITHMS = Set.of(
+        JWSAlgorithm.RS256, JWSAlgorithm.RS384, JWSAlgorithm.RS512,
+        JWSAlgorithm.PS256, JWSAlgorithm.PS384, JWSAlgorithm.PS512,
+        JWSAlgorithm.ES256, JWSAlgorithm.ES384, JWSAlgorithm.ES512
+    );
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}")
+    private String jwkSetUri;
+
+    @Value("${keycloak.jwks.min-refetch-interval:PT30S}")
+    private Duration minRefetchInterval;
+
+    @Value("${keycloak.jwks.timeout:PT2S}")
+    private Duration timeout;
+
+    private URL jwkSetUrl;
+    private ResourceRetriever retriever;
+    private final List<Runnable> rotationListeners = new CopyOnWriteArrayList<>();
+
+    private volatile JWKSet current;
+    private volatile long fetchedAt;
+    private long lastAttemptAt;     // protégé par this
+    private String fingerprint;     // protégé par this
+
+    @PostConstruct
+    void init() throws MalformedURLException {
+        jwkSetUrl = new URL(jwkSetUri);
+        int timeoutMillis = (int) timeout.toMillis();
+        retriever = new DefaultResourceRetriever(timeoutMillis, timeoutMillis);
+
+        Gauge.builder("keycloak.jwks.age", this, source -> source.fetchedAt == 0
+                ? Double.NaN : (System.currentTimeMillis() - source.fetchedAt) / 1000.0)
+            .description("Seconds since the realm signing keys were last fetched")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+
+        // Chargement anticipé : la première requête authentifiée n'attend pas Keycloak
+        try {
+            fetch();
+        } catch (KeySourceException e) {
+            log.warn("Realm signing keys not available at startup, will retry: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector selector, SecurityContext context) throws KeySourceException {
+        JWKSet keys = current;
+        if (keys == null) {
+            keys = refetch(null);
+            if (keys == null) {
+                throw new RemoteKeySourceException("Realm signing keys unavailable", null);
+            }
+        }
+
+        List<JWK> matches = selector.select(keys);
+        if (matches.isEmpty()) {
+            // kid inconnu : rotation probable, un seul re-téléchargement pour toutes les requêtes
+            JWKSet refreshed = refetch(keys);
+            if (refreshed != null && refreshed != keys) {
+                matches = selector.select(refreshed);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Rafraîchissement en arrière-plan, avant que les clés ne soient périmées
+     */
+    @Scheduled(fixedDelayString = "${keycloak.jwks.refresh-interval:PT5M}",
+        initialDelayString = "${keycloak.jwks.refresh-interval:PT5M}")
+    public void scheduledRefresh() {
+        try {
+            fetch();
+        } catch (KeySourceException e) {
+            log.warn("Could not refresh realm signing keys, keeping previous set: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Être prévenu à chaque changement du jeu de clés
+     */
+    public void onRotation(Runnable listener) {
+        rotationListeners.add(listener);
+    }
+
+    /**
+     * Re-télécharger sauf si un autre thread l'a déjà fait depuis {@code seen}, ou si le dernier
+     * essai est trop récent ; retourne le jeu courant (dernier valide en cas d'échec)
+     */
+    private synchronized JWKSet refetch(JWKSet seen) {
+        if (current != seen) {
+            return current;
+        }
+        if (System.currentTimeMillis() - lastAttemptAt < minRefetchInterval.toMillis()) {
+            return current;
+        }
+        try {
+            return fetch();
+        } catch (KeySourceException e) {
+            log.warn("Could not fetch realm signing keys, keeping previous set: {}", e.getMessage());
+            return current;
+        }
+    }
+
+    private synchronized JWKSet fetch() throws KeySourceException {
+        lastAttemptAt = System.currentTimeMillis();
+        JWKSet fetched;
+        try {
+            fetched = JWKSet.parse(retriever.retrieveResource(jwkSetUrl).getContent());
+        } catch (Exception e) {
+            counter("failure").increment();
+            throw new RemoteKeySourceException("Couldn't retrieve JWK set from " + jwkSetUrl
+                + ": " + e.getMessage(), e);
+        }
+        counter("success").increment();
+
+        String previous = fingerprint;
+        fingerprint = fingerprintOf(fetched);
+        current = fetched;
+        fetchedAt = System.currentTimeMillis();
+
+        if (previous != null && !previous.equals(fingerprint)) {
+            log.info("Realm signing keys changed ({} keys), notifying {} listeners",
+                fetched.getKeys().size(), rotationListeners.size());
+            rotationListeners.forEach(Runnable::run);
+        }
+        return fetched;
+    }
+
+    private Counter counter(String outcome) {
+        return Counter.builder("keycloak.jwks.fetches")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    static String fingerprintOf(JWKSet jwkSet) {
+        TreeSet<String> thumbprints = new TreeSet<>();
+        for (JWK key : jwkSet.getKeys()) {
+            try {
+                thumbprints.add(key.getKeyID() + ":" + key.computeThumbprint());
+            } catch (JOSEException e) {
+                thumbprints.add(key.getKeyID() + ":" + key.toJSONString());
+            }
+        }
+        return String.join(",", thumbprints);
+    }
+}
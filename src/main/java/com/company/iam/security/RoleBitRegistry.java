@@ -0,0 +1,59 @@
+// security/RoleBitRegistry.java
+package com.company.iam.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Position de bit des authorities utilisées par les règles d'autorisation compilées (64 au plus).
+ * Le registre est figé au démarrage : les masques calculés ensuite restent valides.
+ */
+@Slf4j
+@Component
+public class RoleBitRegistry {
+
+    public static final int MAX_BITS = Long.SIZE;
+
+    private final Map<String, Integer> bits = new ConcurrentHashMap<>();
+    private volatile boolean frozen;
+
+    /**
+     * Bit de l'authority, attribué si besoin avant le gel du registre ; -1 si aucun bit disponible
+     */
+    public synchronized int register(String authority) {
+        Integer bit = bits.get(authority);
+        if (bit != null) {
+            return bit;
+        }
+        if (frozen || bits.size() >= MAX_BITS) {
+            return -1;
+        }
+        bits.put(authority, bits.size());
+        return bits.size() - 1;
+    }
+
+    public int bitOf(String authority) {
+        return bits.getOrDefault(authority, -1);
+    }
+
+    public long maskOf(Collection<? extends GrantedAuthority> authorities) {
+        long mask = 0;
+        for (GrantedAuthority authority : authorities) {
+            Integer bit = bits.get(authority.getAuthority());
+            if (bit != null) {
+                mask |= 1L << bit;
+            }
+        }
+        return mask;
+    }
+
+    public void freeze() {
+        frozen = true;
+        log.info("Role bit registry frozen with {} authorities", bits.size());
+    }
+}
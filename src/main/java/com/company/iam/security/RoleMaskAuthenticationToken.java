@@ -0,0 +1,26 @@
+// security/RoleMaskAuthenticationToken.java
+package com.company.iam.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.Collection;
+
+/**
+ * JwtAuthenticationToken portant aussi ses authorities sous forme de masque (voir RoleBitRegistry)
+ */
+public class RoleMaskAuthenticationToken extends JwtAuthenticationToken {
+
+    private final long roleMask;
+
+    public RoleMaskAuthenticationToken(Jwt jwt, Collection<? extends GrantedAuthority> authorities,
+                                       String name, long roleMask) {
+        super(jwt, authorities, name);
+        this.roleMask = roleMask;
+    }
+
+    public long getRoleMask() {
+        return roleMask;
+    }
+}
@@ -0,0 +1,76 @@
+// security/TokenRevocationRegistry.java
+package com.company.iam.security;
+
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.JWTParser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Component
+public class TokenRevocationRegistry {
+
+    /**
+     * Durée pendant laquelle une session déconnectée reste révoquée localement.
+     * Doit couvrir la durée de vie maximale d'un access token Keycloak.
+     */
+    @Value("${keycloak.introspection.revocation-retention:PT1H}")
+    private Duration retention;
+
+    private final Map<String, Long> revokedSessions = new ConcurrentHashMap<>();
+
+    /**
+     * Révoquer la session Keycloak portée par un token (refresh ou access)
+     */
+    public String revokeSessionOf(String token) {
+        String sessionId = sessionIdOf(token);
+        if (sessionId != null) {
+            revokeSession(sessionId);
+        }
+        return sessionId;
+    }
+
+    public void revokeSession(String sessionId) {
+        long now = System.currentTimeMillis();
+        revokedSessions.values().removeIf(expiresAt -> expiresAt <= now);
+        revokedSessions.put(sessionId, now + retention.toMillis());
+        log.debug("Session {} revoked locally", sessionId);
+    }
+
+    public boolean isRevoked(String sessionId) {
+        if (sessionId == null) {
+            return false;
+        }
+        Long expiresAt = revokedSessions.get(sessionId);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    /**
+     * Identifiant de session Keycloak ("sid", ou "session_state" avant Keycloak 18)
+     */
+    public static String sessionIdOf(JWTClaimsSet claims) {
+        Object sid = claims.getClaim("sid");
+        if (sid == null) {
+            sid = claims.getClaim("session_state");
+        }
+        return sid != null ? sid.toString() : null;
+    }
+
+    /**
+     * Lecture sans vérification de signature : à n'utiliser qu'après validation par Keycloak
+     */
+    private String sessionIdOf(String token) {
+        try {
+            return sessionIdOf(JWTParser.parse(token).getJWTClaimsSet());
+        } catch (ParseException e) {
+            log.debug("Token is not a JWT, no session to revoke");
+            return null;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+// service/AuditPartitionManager.java
+package com.company.iam.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Partitions de audit_logs : création à l'avance des partitions à venir, et rétention
+ * par suppression de partitions entières (pas de DELETE, pas de bloat ni de VACUUM).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuditPartitionManager {
+
+    /**
+     * Découpage des partitions
+     */
+    public enum Granularity {
+        DAY("yyyyMMdd"),
+        MONTH("yyyyMM");
+
+        private final DateTimeFormatter suffix;
+
+        Granularity(String suffixPattern) {
+            this.suffix = DateTimeFormatter.ofPattern(suffixPattern);
+        }
+
+        LocalDate start(LocalDate date) {
+            return this == DAY ? date : date.withDayOfMonth(1);
+        }
+
+        LocalDate next(LocalDate start) {
+            return this == DAY ? start.plusDays(1) : start.plusMonths(1);
+        }
+    }
+
+    private static final Pattern UPPER_BOUND = Pattern.compile("TO \\('([^']+)'\\)");
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String PARTITIONS = "SELECT c.relname AS name, pg_get_expr(c.relpartbound, c.oid) AS bound "
+        + "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+        + "WHERE i.inhparent = 'audit_logs'::regclass";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${iam.audit.partitions.granularity:DAY}")
+    private Granularity granularity;
+
+    @Value("${iam.audit.partitions.premake:7}")
+    private int premake;
+
+    @Value("${iam.audit.partitions.retention:P365D}")
+    private Duration retention;
+
+    @Value("${iam.audit.partitions.lock-timeout:PT5S}")
+    private Duration lockTimeout;
+
+    /**
+     * Partitions prêtes avant toute écriture d'audit. En cas d'échec, les lignes écrites entre-temps
+     * tombent dans audit_logs_default et en sont extraites à la création de leur partition.
+     */
+    @PostConstruct
+    void init() {
+        try {
+            createAhead();
+        } catch (Exception e) {
+            log.warn("Could not create audit partitions at startup, will retry: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${iam.audit.partitions.maintenance-interval:PT1H}",
+        initialDelayString = "${iam.audit.partitions.maintenance-interval:PT1H}")
+    public void maintain() {
+        try {
+            createAhead();
+            dropExpired();
+        } catch (Exception e) {
+            log.error("Audit partition maintenance failed", e);
+        }
+    }
+
+    private void createAhead() {
+        LocalDate start = granularity.start(LocalDate.now());
+        for (int i = 0; i <= premake; i++) {
+            LocalDate end = granularity.next(start);
+            String name = "audit_logs_p" + granularity.suffix.format(start);
+            try {
+                createPartition(name, start, end);
+            } catch (Exception e) {
+                // Chevauchement (changement de granularité) ou création concurrente par un autre pod
+                log.warn("Could not create audit partition {}: {}", name, e.getMessage());
+            }
+            start = end;
+        }
+    }
+
+    /**
+     * Créer la partition [start, end). Si audit_logs_default contient déjà des lignes de cette plage
+     * (partitions absentes au moment de l'écriture), PostgreSQL refuse la création : la partition
+     * par défaut est alors détachée, la partition créée, les lignes déplacées et la partition par
+     * défaut rattachée, dans une seule transaction.
+     */
+    private void createPartition(String name, LocalDate start, LocalDate end) {
+        if (jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name)) {
+            return;
+        }
+        String create = String.format(
+            "CREATE TABLE IF NOT EXISTS %s PARTITION OF audit_logs FOR VALUES FROM ('%s') TO ('%s')", name, start, end);
+        String range = String.format("timestamp >= '%s' AND timestamp < '%s'", start, end);
+        boolean strandedRows = jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM audit_logs_default WHERE " + range + ")", Boolean.class);
+        if (!strandedRows) {
+            jdbcTemplate.execute(create);
+            return;
+        }
+
+        int moved = jdbcTemplate.execute((ConnectionCallback<Integer>) connection ->
+            inTransaction(connection, statement -> {
+                statement.execute("ALTER TABLE audit_logs DETACH PARTITION audit_logs_default");
+                statement.execute(create);
+                int rows = statement.executeUpdate(
+                    "INSERT INTO audit_logs SELECT * FROM audit_logs_default WHERE " + range);
+                statement.executeUpdate("DELETE FROM audit_logs_default WHERE " + range);
+                statement.execute("ALTER TABLE audit_logs ATTACH PARTITION audit_logs_default DEFAULT");
+                return rows;
+            }));
+        log.warn("Created audit partition {} and moved {} rows into it from audit_logs_default", name, moved);
+    }
+
+    private void dropExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        List<Map<String, Object>> partitions = jdbcTemplate.queryForList(PARTITIONS);
+        for (Map<String, Object> partition : partitions) {
+            String name = (String) partition.get("name");
+            Matcher upperBound = UPPER_BOUND.matcher((String) partition.get("bound"));
+            if (!upperBound.find()) {
+                continue;   // partition par défaut
+            }
+            LocalDateTime end = LocalDateTime.parse(upperBound.group(1), BOUND_FORMAT);
+            if (!end.isAfter(cutoff)) {
+                // Un lock_timeout sur une partition n'empêche pas les suivantes ni la purge
+                try {
+                    dropPartition(name);
+                    log.info("Dropped audit partition {} (data before {})", name, end);
+                } catch (Exception e) {
+                    log.warn("Could not drop audit partition {}, will retry: {}", name, e.getMessage());
+                }
+            }
+        }
+        int purged = jdbcTemplate.update("DELETE FROM audit_logs_default WHERE timestamp < ?", cutoff);
+        if (purged > 0) {
+            log.info("Purged {} expired audit rows from default partition", purged);
+        }
+    }
+
+    /**
+     * Instructions exécutées dans une transaction, avec lock_timeout : DETACH / ATTACH prennent
+     * un verrou exclusif sur audit_logs
+     */
+    private <T> T inTransaction(Connection connection, StatementWork<T> work) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET LOCAL lock_timeout = " + lockTimeout.toMillis());
+            T result = work.run(statement);
+            connection.commit();
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    @FunctionalInterface
+    private interface StatementWork<T> {
+        T run(Statement statement) throws SQLException;
+    }
+
+    /**
+     * DROP bref mais exclusif sur audit_logs : ne pas rester en file derrière une longue requête
+     */
+    private void dropPartition(String name) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET lock_timeout = " + lockTimeout.toMillis());
+                try {
+                    statement.execute("DROP TABLE IF EXISTS " + name);
+                } finally {
+                    statement.execute("RESET lock_timeout");
+                }
+            }
+            return null;
+        });
+    }
+}
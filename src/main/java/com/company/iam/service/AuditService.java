@@ -3,9 +3,9 @@ package com.company.iam.service;
 
 import com.company.iam.model.entity.AuditLog;
 import com.company.iam.repository.AuditLogRepository;
+import com.company.iam.security.LoginAttemptGuard;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -17,28 +17,37 @@ import java.util.List;
 public class AuditService {
 
     private final AuditLogRepository auditLogRepository;
+    private final LoginAttemptGuard loginAttemptGuard;
+    private final AuditWriter auditWriter;
 
     /**
-     * ACCOUNTING - Enregistrer une action (async pour ne pas bloquer)
+     * ACCOUNTING - Enregistrer une action (déposée dans la file d'écriture, sans bloquer)
      */
-    @Async
-    public void logAction(String action, String username, 
+    public void logAction(String action, String username,
                           String ipAddress, String result, String details) {
-        try {
-            AuditLog auditLog = AuditLog.builder()
+        auditWriter.append(AuditLog.builder()
+            .action(action)
+            .username(username)
+            .ipAddress(ipAddress)
+            .result(result)
+            .details(details)
+            .timestamp(LocalDateTime.now())
+            .build());
+    }
+
+    /**
+     * ACCOUNTING - Enregistrer un lot d'actions (opérations en masse)
+     */
+    public void logActions(String action, String username, String result, List<String> details) {
+        LocalDateTime now = LocalDateTime.now();
+        for (String detail : details) {
+            auditWriter.append(AuditLog.builder()
                 .action(action)
                 .username(username)
-                .ipAddress(ipAddress)
                 .result(result)
-                .details(details)
-                .timestamp(LocalDateTime.now())
-                .build();
-
-            auditLogRepository.save(auditLog);
-            log.debug("Audit log saved: action={}, user={}, result={}", 
-                action, username, result);
-        } catch (Exception e) {
-            log.error("Failed to save audit log", e);
+                .details(detail)
+                .timestamp(now)
+                .build());
         }
     }
 
@@ -50,14 +59,10 @@ public class AuditService {
     }
 
     /**
-     * Détecter les tentatives de connexion échouées
+     * Détecter les tentatives de connexion échouées (fenêtre glissante en mémoire)
      */
     public boolean isAccountLocked(String username) {
-        LocalDateTime since = LocalDateTime.now().minusMinutes(15);
-        long failedAttempts = auditLogRepository.countByUsernameAndActionAndResultAndTimestampAfter(
-            username, "LOGIN", "FAILURE", since
-        );
-        return failedAttempts >= 5; // Blocage après 5 tentatives en 15 minutes
+        return loginAttemptGuard.isUsernameLocked(username);
     }
 
     /**
@@ -0,0 +1,596 @@
+// service/AuditSpool.java
+package com.company.iam.service;
+
+import com.company.iam.model.entity.AuditLog;
+import com.company.iam.repository.AuditLogBatchInserter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Journal local des événements d'audit (write-ahead), en segments de taille fixe mappés en mémoire.
+ * Le thread d'écriture d'audit y ajoute les événements ; un thread de rejeu les insère par lots
+ * dans audit_logs, dans l'ordre, et n'avance son point de reprise qu'après un INSERT réussi.
+ * Base indisponible : les événements s'accumulent sur disque et sont rejoués à son retour.
+ * Le rejeu est « au moins une fois » : un arrêt brutal entre INSERT et point de reprise rejoue un lot.
+ * Un événement que la base refuse définitivement est écarté dans dead-letter.ndjson.
+ * <p>
+ * Enregistrement : longueur (int), CRC32 (int), puis les champs ; une longueur nulle termine le segment.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuditSpool {
+
+    /**
+     * Politique de synchronisation disque des segments
+     */
+    public enum FsyncPolicy {
+        ALWAYS,     // après chaque lot écrit : résiste à une panne machine
+        INTERVAL,   // au plus tous les fsync-interval
+        NEVER       // laissé à l'OS : résiste à un crash du processus seulement
+    }
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String DEAD_LETTER_FILE = "dead-letter.ndjson";
+    private static final int HEADER_SIZE = 8;
+    private static final int PREALLOCATION_CHUNK = 1 << 20;
+
+    private final AuditLogBatchInserter batchInserter;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+
+    @Value("${iam.audit.spool.directory:data/audit-spool}")
+    private String directory;
+
+    @Value("${iam.audit.spool.segment-size:16MB}")
+    private DataSize segmentSize;
+
+    @Value("${iam.audit.spool.max-segments:256}")
+    private int maxSegments;
+
+    @Value("${iam.audit.spool.fsync:INTERVAL}")
+    private FsyncPolicy fsyncPolicy;
+
+    @Value("${iam.audit.spool.fsync-interval:PT1S}")
+    private Duration fsyncInterval;
+
+    @Value("${iam.audit.spool.replay-batch-size:500}")
+    private int replayBatchSize;
+
+    @Value("${iam.audit.spool.poll-interval:PT0.1S}")
+    private Duration pollInterval;
+
+    @Value("${iam.audit.spool.retry-backoff:PT1S}")
+    private Duration retryBackoff;
+
+    @Value("${iam.audit.spool.max-retry-backoff:PT30S}")
+    private Duration maxRetryBackoff;
+
+    @Value("${iam.audit.spool.shutdown-timeout:PT10S}")
+    private Duration shutdownTimeout;
+
+    private Path spoolDirectory;
+    private FileChannel checkpointChannel;
+    private final ConcurrentSkipListMap<Long, MappedByteBuffer> segments = new ConcurrentSkipListMap<>();
+
+    /**
+     * Position dans le journal : segment et décalage
+     */
+    private record Position(long segment, int offset) {
+    }
+
+    // Côté écriture (thread d'écriture d'audit uniquement)
+    private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(512);
+    private final DataOutputStream recordOut = new DataOutputStream(recordBytes);
+    private final CRC32 writeCrc = new CRC32();
+    private long writeSegment;
+    private int writeOffset;
+    private int forcedOffset;
+    private long lastForceAt;
+
+    // Dernière position écrite visible par le thread de rejeu
+    private volatile Position published;
+
+    // Côté rejeu
+    private final CRC32 readCrc = new CRC32();
+    private volatile Position replayed;
+    private int replayProgress;
+    private Thread replayThread;
+    private volatile boolean running;
+    private volatile long drainDeadline;
+
+    private Counter replayedEvents;
+    private Counter replayFailures;
+    private Counter fsyncFailures;
+    private Counter deadLetters;
+
+    @PostConstruct
+    void start() throws IOException {
+        spoolDirectory = Paths.get(directory).toAbsolutePath();
+        Files.createDirectories(spoolDirectory);
+        checkpointChannel = FileChannel.open(spoolDirectory.resolve(CHECKPOINT_FILE),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Position checkpoint = readCheckpoint();
+
+        // Reprise : segments non encore rejoués ; on écrit toujours dans un nouveau segment
+        long lastSegment = checkpoint.segment();
+        try (Stream<Path> files = Files.list(spoolDirectory)) {
+            for (Path file : files.filter(f -> f.toString().endsWith(SEGMENT_SUFFIX)).toList()) {
+                long sequence = sequenceOf(file);
+                if (sequence < checkpoint.segment()) {
+                    Files.delete(file);
+                    continue;
+                }
+                segments.put(sequence, map(file, false));
+                lastSegment = Math.max(lastSegment, sequence);
+            }
+        }
+
+        if (segments.isEmpty()) {
+            replayed = new Position(lastSegment + 1, 0);
+        } else {
+            long first = segments.firstKey();
+            replayed = first == checkpoint.segment() ? checkpoint : new Position(first, 0);
+            log.info("Audit spool: {} segments pending replay in {}", segments.size(), spoolDirectory);
+        }
+
+        openSegment(lastSegment + 1);
+        published = new Position(writeSegment, 0);
+
+        Gauge.builder("iam.audit.spool.segments", segments, Map::size)
+            .description("Audit spool segments on disk")
+            .register(meterRegistry);
+        Gauge.builder("iam.audit.spool.backlog", this, AuditSpool::backlogBytes)
+            .description("Bytes of audit events not yet replayed into the database")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        replayedEvents = Counter.builder("iam.audit.spool.replayed").register(meterRegistry);
+        replayFailures = Counter.builder("iam.audit.spool.replay.failures").register(meterRegistry);
+        fsyncFailures = Counter.builder("iam.audit.spool.fsync.failures").register(meterRegistry);
+        deadLetters = Counter.builder("iam.audit.spool.dead.letters")
+            .description("Audit events rejected by the database and moved to the dead-letter file")
+            .register(meterRegistry);
+
+        running = true;
+        replayThread = new Thread(this::replayLoop, "audit-spool-replay");
+        replayThread.setDaemon(true);
+        replayThread.start();
+    }
+
+    /**
+     * Ajouter un événement (thread d'écriture d'audit) ; visible au rejeu après {@link #flush()}
+     */
+    void append(AuditLog auditLog) throws IOException {
+        recordBytes.reset();
+        encode(auditLog, recordOut);
+        int length = recordBytes.size();
+        if (HEADER_SIZE + length > segmentSize.toBytes()) {
+            throw new IOException("Audit event too large for spool segment: " + length + " bytes");
+        }
+        if (writeOffset + HEADER_SIZE + length > segmentSize.toBytes()) {
+            rotate();
+        }
+
+        byte[] payload = recordBytes.toByteArray();
+        writeCrc.reset();
+        writeCrc.update(payload);
+        MappedByteBuffer buffer = segments.get(writeSegment);
+        buffer.put(writeOffset + HEADER_SIZE, payload);
+        buffer.putInt(writeOffset + 4, (int) writeCrc.getValue());
+        buffer.putInt(writeOffset, length);
+        writeOffset += HEADER_SIZE + length;
+    }
+
+    /**
+     * Publier les événements ajoutés et synchroniser selon la politique fsync.
+     * Un fsync en échec n'empêche pas la publication : les événements sont dans la projection
+     * et seront rejoués, seule leur tenue à une panne machine n'est pas garantie.
+     */
+    void flush() {
+        if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+            force();
+        } else if (fsyncPolicy == FsyncPolicy.INTERVAL
+                && System.nanoTime() - lastForceAt >= fsyncInterval.toNanos()) {
+            force();
+        }
+        published = new Position(writeSegment, writeOffset);
+        LockSupport.unpark(replayThread);
+    }
+
+    private void force() {
+        lastForceAt = System.nanoTime();
+        if (writeOffset > forcedOffset) {
+            try {
+                segments.get(writeSegment).force(forcedOffset, writeOffset - forcedOffset);
+                forcedOffset = writeOffset;
+            } catch (UncheckedIOException e) {
+                fsyncFailures.increment();
+                log.warn("Could not fsync audit spool segment {}: {}", writeSegment, e.getMessage());
+            }
+        }
+    }
+
+    private void rotate() throws IOException {
+        if (segments.size() >= maxSegments) {
+            throw new IOException("Audit spool full (" + segments.size() + " segments pending replay)");
+        }
+        if (fsyncPolicy != FsyncPolicy.NEVER) {
+            force();
+        }
+        openSegment(writeSegment + 1);
+        // Le segment précédent est scellé : le rejeu passera au suivant après l'avoir lu
+        published = new Position(writeSegment, 0);
+    }
+
+    private void openSegment(long sequence) throws IOException {
+        segments.put(sequence, map(segmentPath(sequence), true));
+        writeSegment = sequence;
+        writeOffset = 0;
+        forcedOffset = 0;
+    }
+
+    private void replayLoop() {
+        long backoff = retryBackoff.toNanos();
+        while (running) {
+            try {
+                if (!replayNext()) {
+                    LockSupport.parkNanos(this, pollInterval.toNanos());
+                    continue;
+                }
+                backoff = retryBackoff.toNanos();
+            } catch (Exception e) {
+                replayFailures.increment();
+                log.warn("Audit replay failed, retrying in {} ms: {}",
+                    TimeUnit.NANOSECONDS.toMillis(backoff), e.getMessage());
+                // Les écritures réveillent ce thread : attendre tout le délai malgré tout
+                long deadline = System.nanoTime() + backoff;
+                while (running && System.nanoTime() < deadline) {
+                    LockSupport.parkNanos(this, deadline - System.nanoTime());
+                }
+                backoff = Math.min(backoff * 2, maxRetryBackoff.toNanos());
+            }
+        }
+
+        // Arrêt : une dernière passe sur ce qui reste, sans nouvelle tentative, bornée par shutdown-timeout
+        try {
+            while (System.nanoTime() < drainDeadline && replayNext()) {
+                // lot suivant
+            }
+        } catch (Exception e) {
+            log.warn("Audit replay interrupted at shutdown, remaining events stay in {}: {}",
+                spoolDirectory, e.getMessage());
+        }
+    }
+
+    /**
+     * Rejouer le lot suivant et avancer le point de reprise
+     *
+     * @return false s'il n'y avait rien à rejouer
+     */
+    private boolean replayNext() {
+        List<AuditLog> batch = new ArrayList<>(replayBatchSize);
+        List<Position> ends = new ArrayList<>(replayBatchSize);
+        Position end = read(replayed, batch, ends);
+        if (batch.isEmpty()) {
+            if (end.equals(replayed)) {
+                return false;
+            }
+            commit(end);
+            return true;
+        }
+        replayProgress = 0;
+        try {
+            replay(batch, 0, batch.size());
+        } catch (RuntimeException e) {
+            // Avancer malgré tout sur la partie du lot déjà insérée ou écartée
+            if (replayProgress > 0) {
+                commit(ends.get(replayProgress - 1));
+            }
+            throw e;
+        }
+        commit(end);
+        return true;
+    }
+
+    /**
+     * Insérer batch[from, to) en un lot (tout ou rien, le driver envoie le lot en une transaction implicite).
+     * Un lot refusé définitivement (contrainte, donnée invalide) est coupé en deux jusqu'à isoler
+     * l'événement fautif, écarté dans le fichier de rebut : il ne bloque plus le rejeu de ceux qui suivent.
+     * Une erreur transitoire est propagée ; replayProgress indique alors la partie du lot traitée.
+     */
+    private void replay(List<AuditLog> batch, int from, int to) {
+        try {
+            batchInserter.insert(batch.subList(from, to));
+            replayedEvents.increment(to - from);
+        } catch (RuntimeException e) {
+            if (!isPermanent(e)) {
+                throw e;
+            }
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                replay(batch, from, middle);
+                replay(batch, middle, to);
+                return;
+            }
+            deadLetter(batch.get(from), e);
+        }
+        replayProgress = to;
+    }
+
+    /**
+     * Erreur propre aux données (SQLState classe 22 ou 23) : la rejouer ne changerait rien
+     */
+    private static boolean isPermanent(Exception e) {
+        if (e instanceof DataIntegrityViolationException) {
+            return true;
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql) {
+                for (SQLException next = sql; next != null; next = next.getNextException()) {
+                    String state = next.getSQLState();
+                    if (state != null && (state.startsWith("22") || state.startsWith("23"))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Écarter un événement refusé par la base : une ligne JSON dans le fichier de rebut, synchronisée
+     * avant que le point de reprise ne le dépasse
+     */
+    private void deadLetter(AuditLog auditLog, Exception cause) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("rejectedAt", LocalDateTime.now().toString());
+        entry.put("error", String.valueOf(NestedExceptionUtils.getMostSpecificCause(cause).getMessage()));
+        entry.put("timestamp", String.valueOf(auditLog.getTimestamp()));
+        entry.put("action", auditLog.getAction());
+        entry.put("userId", auditLog.getUserId());
+        entry.put("username", auditLog.getUsername());
+        entry.put("ipAddress", auditLog.getIpAddress());
+        entry.put("userAgent", auditLog.getUserAgent());
+        entry.put("resource", auditLog.getResource());
+        entry.put("result", auditLog.getResult());
+        entry.put("details", auditLog.getDetails());
+        try (FileChannel channel = FileChannel.open(spoolDirectory.resolve(DEAD_LETTER_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            byte[] line = (objectMapper.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+            channel.write(ByteBuffer.wrap(line));
+            channel.force(false);
+        } catch (IOException e) {
+            // Sans rebut, l'événement ne doit pas être sauté : le rejeu réessaiera
+            throw new UncheckedIOException("Could not write audit dead-letter file", e);
+        }
+        deadLetters.increment();
+        log.error("Audit event rejected by the database, moved to {}: {}",
+            DEAD_LETTER_FILE, entry.get("error"));
+    }
+
+    /**
+     * Lire au plus replay-batch-size événements à partir de {@code from}, avec la position suivant
+     * chacun d'eux ; retourne la position atteinte
+     */
+    private Position read(Position from, List<AuditLog> batch, List<Position> ends) {
+        Position limit = published;
+        long segment = from.segment();
+        int offset = from.offset();
+        while (batch.size() < replayBatchSize) {
+            MappedByteBuffer buffer = segments.get(segment);
+            if (buffer == null) {
+                break;
+            }
+            boolean sealed = segment < limit.segment();
+            byte[] payload = readRecord(buffer, segment, offset, sealed ? buffer.capacity() : limit.offset());
+            if (payload == null) {
+                if (sealed) {
+                    // Segment scellé épuisé : passer au suivant
+                    segment++;
+                    offset = 0;
+                }
+                break;
+            }
+            batch.add(decode(ByteBuffer.wrap(payload)));
+            offset += HEADER_SIZE + payload.length;
+            ends.add(new Position(segment, offset));
+        }
+        return new Position(segment, offset);
+    }
+
+    /**
+     * Contenu de l'enregistrement à {@code offset}, ou null en fin de données
+     * (fin de segment, écriture interrompue par un crash ou enregistrement corrompu)
+     */
+    private byte[] readRecord(MappedByteBuffer buffer, long segment, int offset, int end) {
+        if (offset + HEADER_SIZE > end) {
+            return null;
+        }
+        int length = buffer.getInt(offset);
+        if (length <= 0 || length > end - offset - HEADER_SIZE) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        buffer.get(offset + HEADER_SIZE, payload);
+        readCrc.reset();
+        readCrc.update(payload);
+        if ((int) readCrc.getValue() != buffer.getInt(offset + 4)) {
+            log.warn("Corrupted audit spool record in segment {} at offset {}, skipping rest of segment",
+                segment, offset);
+            return null;
+        }
+        return payload;
+    }
+
+    /**
+     * Avancer le point de reprise et supprimer les segments entièrement rejoués
+     */
+    private void commit(Position position) {
+        long from = replayed.segment();
+        replayed = position;
+        try {
+            ByteBuffer checkpoint = ByteBuffer.allocate(12).putLong(position.segment()).putInt(position.offset());
+            checkpointChannel.write(checkpoint.flip(), 0);
+            for (long segment = from; segment < position.segment(); segment++) {
+                if (segments.remove(segment) != null) {
+                    Files.deleteIfExists(segmentPath(segment));
+                }
+            }
+        } catch (IOException e) {
+            // Les événements sont en base : au pire ils seront rejoués une seconde fois au redémarrage
+            log.warn("Could not update audit spool checkpoint: {}", e.getMessage());
+        }
+    }
+
+    private Position readCheckpoint() throws IOException {
+        ByteBuffer checkpoint = ByteBuffer.allocate(12);
+        if (checkpointChannel.read(checkpoint, 0) < 12) {
+            return new Position(0, 0);
+        }
+        checkpoint.flip();
+        return new Position(checkpoint.getLong(), checkpoint.getInt());
+    }
+
+    private double backlogBytes() {
+        Position end = published;
+        Position start = replayed;
+        return (end.segment() - start.segment()) * (double) segmentSize.toBytes() + end.offset() - start.offset();
+    }
+
+    /**
+     * Projeter un segment. Un nouveau segment est d'abord écrit en entier : un disque plein échoue ici
+     * en IOException, et non plus tard en SIGBUS lors d'une écriture dans un fichier creux.
+     */
+    private MappedByteBuffer map(Path file, boolean create) throws IOException {
+        if (!create) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            }
+        }
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = segmentSize.toBytes();
+            ByteBuffer zeros = ByteBuffer.allocate((int) Math.min(size, PREALLOCATION_CHUNK));
+            for (long position = 0; position < size; ) {
+                zeros.clear().limit((int) Math.min(zeros.capacity(), size - position));
+                position += channel.write(zeros, position);
+            }
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    private Path segmentPath(long sequence) {
+        return spoolDirectory.resolve(String.format("audit-%020d%s", sequence, SEGMENT_SUFFIX));
+    }
+
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring("audit-".length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static void encode(AuditLog auditLog, DataOutputStream out) throws IOException {
+        LocalDateTime timestamp = auditLog.getTimestamp() != null ? auditLog.getTimestamp() : LocalDateTime.now();
+        out.writeLong(timestamp.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(timestamp.getNano());
+        writeString(out, auditLog.getAction());
+        writeString(out, auditLog.getUserId());
+        writeString(out, auditLog.getUsername());
+        writeString(out, auditLog.getIpAddress());
+        writeString(out, auditLog.getUserAgent());
+        writeString(out, auditLog.getResource());
+        writeString(out, auditLog.getResult());
+        writeString(out, auditLog.getDetails());
+    }
+
+    private static AuditLog decode(ByteBuffer in) {
+        LocalDateTime timestamp = LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC);
+        return AuditLog.builder()
+            .timestamp(timestamp)
+            .action(readString(in))
+            .userId(readString(in))
+            .username(readString(in))
+            .ipAddress(readString(in))
+            .userAgent(readString(in))
+            .resource(readString(in))
+            .result(readString(in))
+            .details(readString(in))
+            .build();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    /**
+     * Arrêt : dernier rejeu de ce qui reste (le thread d'écriture a déjà vidé sa file), au plus
+     * shutdown-timeout ; ce qui n'a pu être inséré reste sur disque et sera rejoué au prochain démarrage
+     */
+    @PreDestroy
+    void stop() throws IOException, InterruptedException {
+        drainDeadline = System.nanoTime() + shutdownTimeout.toNanos();
+        running = false;
+        LockSupport.unpark(replayThread);
+        replayThread.join(shutdownTimeout.plusSeconds(1).toMillis());
+        if (fsyncPolicy != FsyncPolicy.NEVER) {
+            force();
+        }
+        checkpointChannel.close();
+    }
+}
@@ -0,0 +1,192 @@
+// service/AuditWriter.java
+package com.company.iam.service;
+
+import com.company.iam.model.entity.AuditLog;
+import com.company.iam.repository.AuditLogBatchInserter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Écriture des événements d'audit : les appelants déposent dans une file bornée sans verrou,
+ * un thread dédié la vide par lots dans le journal local ({@link AuditSpool}), qui les rejoue
+ * en base. Un appel d'audit ne dépend donc jamais de la disponibilité de PostgreSQL.
+ * Si le journal refuse un événement (disque plein, journal saturé), il est inséré directement.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuditWriter {
+
+    /**
+     * Comportement quand la file est pleine
+     */
+    public enum OverflowPolicy {
+        DROP,           // l'événement est perdu (compté)
+        BLOCK,          // l'appelant attend une place, au plus block-timeout, puis l'événement est perdu
+        CALLER_RUNS     // l'appelant insère lui-même l'événement en base
+    }
+
+    private final AuditSpool spool;
+    private final AuditLogBatchInserter batchInserter;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${iam.audit.writer.capacity:65536}")
+    private int capacity;
+
+    @Value("${iam.audit.writer.batch-size:500}")
+    private int batchSize;
+
+    @Value("${iam.audit.writer.flush-interval:PT0.2S}")
+    private Duration flushInterval;
+
+    @Value("${iam.audit.writer.overflow-policy:DROP}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${iam.audit.writer.block-timeout:PT1S}")
+    private Duration blockTimeout;
+
+    private AuditRingBuffer<AuditLog> buffer;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    private Counter dropped;
+    private Counter writeFailures;
+    private DistributionSummary batchSizes;
+    private Timer flushTimer;
+
+    @PostConstruct
+    void start() {
+        buffer = new AuditRingBuffer<>(capacity);
+        Gauge.builder("iam.audit.queue.depth", buffer, AuditRingBuffer::size)
+            .description("Audit events waiting to be written")
+            .register(meterRegistry);
+        dropped = Counter.builder("iam.audit.dropped")
+            .description("Audit events lost because the queue was full or the write failed")
+            .register(meterRegistry);
+        writeFailures = Counter.builder("iam.audit.write.failures").register(meterRegistry);
+        batchSizes = DistributionSummary.builder("iam.audit.batch.size").register(meterRegistry);
+        flushTimer = Timer.builder("iam.audit.flush").register(meterRegistry);
+
+        running = true;
+        writerThread = new Thread(this::run, "audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("Audit writer started: capacity={}, batchSize={}, flushInterval={}, overflow={}",
+            buffer.capacity(), batchSize, flushInterval, overflowPolicy);
+    }
+
+    /**
+     * Déposer un événement sans attendre son écriture
+     */
+    public void append(AuditLog auditLog) {
+        if (buffer.offer(auditLog)) {
+            if (buffer.size() >= batchSize) {
+                LockSupport.unpark(writerThread);
+            }
+            return;
+        }
+
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                long deadline = System.nanoTime() + blockTimeout.toNanos();
+                while (!buffer.offer(auditLog)) {
+                    LockSupport.unpark(writerThread);
+                    if (System.nanoTime() > deadline) {
+                        dropped.increment();
+                        return;
+                    }
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+                }
+            }
+            case CALLER_RUNS -> insert(List.of(auditLog));
+            default -> dropped.increment();
+        }
+    }
+
+    private void run() {
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        long flushIntervalNanos = flushInterval.toNanos();
+        while (running || buffer.size() > 0) {
+            buffer.drainTo(batch, batchSize);
+            if (batch.isEmpty()) {
+                // Au repos : fsync éventuellement dû pour les derniers événements écrits
+                flushSpool();
+                LockSupport.parkNanos(this, flushIntervalNanos);
+                continue;
+            }
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<AuditLog> batch) {
+        long start = System.nanoTime();
+        List<AuditLog> unspooled = new ArrayList<>();
+        for (AuditLog auditLog : batch) {
+            try {
+                spool.append(auditLog);
+            } catch (IOException | RuntimeException | Error e) {
+                // Error : accès à la projection en échec (InternalError sur SIGBUS), le thread doit survivre
+                if (unspooled.isEmpty()) {
+                    log.warn("Audit spool rejected events, writing them directly: {}", e.toString());
+                }
+                unspooled.add(auditLog);
+            }
+        }
+        flushSpool();
+        batchSizes.record(batch.size());
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (!unspooled.isEmpty()) {
+            insert(unspooled);
+        }
+    }
+
+    /**
+     * Les événements ajoutés au journal y restent et seront publiés au flush suivant :
+     * un échec ici est journalisé sans les réinsérer directement (ils le seraient deux fois)
+     */
+    private void flushSpool() {
+        try {
+            spool.flush();
+        } catch (RuntimeException | Error e) {
+            log.error("Audit spool flush failed", e);
+        }
+    }
+
+    private void insert(List<AuditLog> batch) {
+        try {
+            batchInserter.insert(batch);
+        } catch (Exception e) {
+            writeFailures.increment();
+            dropped.increment(batch.size());
+            log.error("Failed to write {} audit events", batch.size(), e);
+        }
+    }
+
+    /**
+     * Arrêt : le thread d'écriture vide la file avant de se terminer
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+}
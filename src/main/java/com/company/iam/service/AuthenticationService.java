@@ -4,6 +4,10 @@ package com.company.iam.service;
 import com.company.iam.exception.IamException;
 import com.company.iam.model.dto.LoginRequest;
 import com.company.iam.model.dto.TokenResponse;
+import com.company.iam.security.IntrospectionCache;
+import com.company.iam.security.LocalTokenIntrospector;
+import com.company.iam.security.LoginAttemptGuard;
+import com.company.iam.security.TokenRevocationRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -15,6 +19,7 @@ import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.Map;
+import java.util.Optional;
 
 @Slf4j
 @Service
@@ -33,13 +38,24 @@ public class AuthenticationService {
     @Value("${keycloak.client.secret}")
     private String clientSecret;
 
+    @Value("${keycloak.introspection.local:true}")
+    private boolean localIntrospection;
+
     private final RestTemplate restTemplate;
     private final AuditService auditService;
+    private final LocalTokenIntrospector localTokenIntrospector;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+    private final IntrospectionCache introspectionCache;
+    private final RefreshTokenCoalescer refreshTokenCoalescer;
+    private final LoginAttemptGuard loginAttemptGuard;
 
     /**
      * AUTHENTICATION - Obtenir un token via username/password
      */
     public TokenResponse login(LoginRequest request, String ipAddress) {
+        // Compte ou IP bloqué : rejet sans appel Keycloak ni écriture d'audit
+        loginAttemptGuard.checkAllowed(request.getUsername(), ipAddress);
+
         String tokenUrl = buildTokenUrl();
         
         MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
@@ -61,7 +77,8 @@ public class AuthenticationService {
             );
 
             Map<String, Object> body = response.getBody();
-            
+            loginAttemptGuard.recordSuccess(request.getUsername());
+
             // Audit log - SUCCESS
             auditService.logAction("LOGIN", request.getUsername(), 
                 ipAddress, "SUCCESS", "Login successful");
@@ -77,6 +94,8 @@ public class AuthenticationService {
                 .build();
 
         } catch (HttpClientErrorException e) {
+            loginAttemptGuard.recordFailure(request.getUsername(), ipAddress);
+
             // Audit log - FAILURE
             auditService.logAction("LOGIN", request.getUsername(), 
                 ipAddress, "FAILURE", "Invalid credentials");
@@ -90,6 +109,10 @@ public class AuthenticationService {
      * Renouveler le token avec le refresh token
      */
     public TokenResponse refreshToken(String refreshToken) {
+        return refreshTokenCoalescer.refresh(refreshToken, () -> grantRefreshToken(refreshToken));
+    }
+
+    private TokenResponse grantRefreshToken(String refreshToken) {
         String tokenUrl = buildTokenUrl();
 
         MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
@@ -138,15 +161,34 @@ public class AuthenticationService {
         headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
 
         restTemplate.postForEntity(logoutUrl, new HttpEntity<>(params, headers), Void.class);
-        
+
+        // Les access tokens de la session ne doivent plus être acceptés localement
+        String sessionId = tokenRevocationRegistry.revokeSessionOf(refreshToken);
+        introspectionCache.evictSession(sessionId);
+        refreshTokenCoalescer.evict(refreshToken);
+
         auditService.logAction("LOGOUT", username, null, "SUCCESS", "User logged out");
         log.info("User {} logged out successfully", username);
     }
 
     /**
-     * Introspection du token
+     * Introspection du token - locale si possible, sinon via Keycloak
      */
     public Map<String, Object> introspectToken(String token) {
+        return introspectionCache.get(token, this::introspectUncached);
+    }
+
+    private Map<String, Object> introspectUncached(String token) {
+        if (localIntrospection) {
+            Optional<Map<String, Object>> local = localTokenIntrospector.introspect(token);
+            if (local.isPresent()) {
+                return local.get();
+            }
+        }
+        return introspectRemotely(token);
+    }
+
+    private Map<String, Object> introspectRemotely(String token) {
         String introspectUrl = String.format(
             "%s/realms/%s/protocol/openid-connect/token/introspect",
             keycloakUrl, realm
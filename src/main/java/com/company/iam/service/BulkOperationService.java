@@ -0,0 +1,316 @@
+// service/BulkOperationService.java
+package com.company.iam.service;
+
+import com.company.iam.exception.IamException;
+import com.company.iam.model.dto.BulkJobDTO;
+import com.company.iam.model.dto.BulkOperationRequest;
+import com.company.iam.model.dto.BulkOperationRequest.Operation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.UsersResource;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Jobs de modification en masse (activation, désactivation, suppression, rôles).
+ * Un job est exécuté par au plus {@code concurrency} workers du BulkWorkerPool qui se partagent
+ * la liste des cibles ; il ne dépend pas de la requête HTTP qui l'a créé.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkOperationService {
+
+    private final Keycloak keycloakAdminClient;
+    private final UserService userService;
+    private final AuditService auditService;
+    private final BulkWorkerPool bulkWorkerPool;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${keycloak.realm}")
+    private String realm;
+
+    @Value("${iam.bulk.jobs.default-concurrency:4}")
+    private int defaultConcurrency;
+
+    @Value("${iam.bulk.jobs.search-page-size:500}")
+    private int searchPageSize;
+
+    @Value("${iam.bulk.jobs.max-reported-failures:1000}")
+    private int maxReportedFailures;
+
+    @Value("${iam.bulk.jobs.audit-batch-size:500}")
+    private int auditBatchSize;
+
+    @Value("${iam.bulk.jobs.retention:PT24H}")
+    private Duration retention;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * Enregistrer un job et le démarrer en arrière-plan ; retourne immédiatement son état initial
+     */
+    public BulkJobDTO submit(BulkOperationRequest request, String requestedBy) {
+        boolean byIds = request.getUserIds() != null && !request.getUserIds().isEmpty();
+        boolean byQuery = request.getQuery() != null && !request.getQuery().isBlank();
+        if (byIds == byQuery) {
+            throw new IamException("Exactly one of userIds or query is required", HttpStatus.BAD_REQUEST);
+        }
+        if (request.getOperation() == Operation.SET_ROLES && request.getRoles() == null) {
+            throw new IamException("Roles are required for SET_ROLES", HttpStatus.BAD_REQUEST);
+        }
+
+        Job job = new Job(UUID.randomUUID().toString(), request, requestedBy,
+            request.getConcurrency() != null ? request.getConcurrency() : defaultConcurrency);
+        jobs.put(job.id, job);
+        try {
+            bulkWorkerPool.execute(() -> start(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw new IamException("Bulk worker pool is saturated, retry later", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        log.info("Bulk job {} submitted by {}: {}", job.id, requestedBy, request.getOperation());
+        return job.toDTO();
+    }
+
+    public BulkJobDTO getJob(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new IamException("Bulk job not found: " + jobId, HttpStatus.NOT_FOUND);
+        }
+        return job.toDTO();
+    }
+
+    /**
+     * Oublier les jobs terminés depuis plus longtemps que la rétention
+     */
+    @Scheduled(fixedDelayString = "${iam.bulk.jobs.purge-interval:PT10M}")
+    public void purgeFinishedJobs() {
+        Instant threshold = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(threshold));
+    }
+
+    // ─── Exécution ────────────────────────────────────────────────
+
+    private void start(Job job) {
+        List<String> targets;
+        try {
+            targets = resolveTargets(job.request);
+        } catch (Exception e) {
+            log.warn("Bulk job {} could not resolve its targets: {}", job.id, e.getMessage());
+            job.fail(e.getMessage());
+            return;
+        }
+
+        int workers = Math.min(job.concurrency, targets.size());
+        job.begin(targets, workers);
+        if (workers == 0) {
+            finish(job);
+            return;
+        }
+        for (int i = 0; i < workers; i++) {
+            try {
+                bulkWorkerPool.execute(() -> work(job));
+            } catch (RejectedExecutionException e) {
+                // Les workers déjà lancés traiteront les cibles restantes
+                workerDone(job);
+            }
+        }
+    }
+
+    private void work(Job job) {
+        try {
+            int index;
+            while ((index = job.next.getAndIncrement()) < job.targets.size()) {
+                String userId = job.targets.get(index);
+                try {
+                    apply(job.request, userId);
+                    job.succeeded.incrementAndGet();
+                    job.audit(detail(job.request.getOperation(), userId));
+                    counter(job.request.getOperation(), "success").increment();
+                } catch (Exception e) {
+                    job.failed(userId, e.getMessage());
+                    counter(job.request.getOperation(), "failure").increment();
+                }
+            }
+        } finally {
+            workerDone(job);
+        }
+    }
+
+    private void workerDone(Job job) {
+        if (job.activeWorkers.decrementAndGet() == 0) {
+            finish(job);
+        }
+    }
+
+    private void finish(Job job) {
+        job.flushAudit();
+        job.finishedAt = Instant.now();
+        job.status = "COMPLETED";
+        log.info("Bulk job {} completed: {} succeeded, {} failed in {} ms", job.id, job.succeeded.get(),
+            job.failed.get(), Duration.between(job.startedAt, job.finishedAt).toMillis());
+    }
+
+    private void apply(BulkOperationRequest request, String userId) {
+        switch (request.getOperation()) {
+            case ENABLE -> userService.applyStatus(userId, true);
+            case DISABLE -> userService.applyStatus(userId, false);
+            case DELETE -> userService.removeUser(userId);
+            case SET_ROLES -> userService.applyRoles(userId, request.getRoles());
+        }
+    }
+
+    private List<String> resolveTargets(BulkOperationRequest request) {
+        if (request.getUserIds() != null && !request.getUserIds().isEmpty()) {
+            return List.copyOf(new LinkedHashSet<>(request.getUserIds()));
+        }
+
+        UsersResource users = keycloakAdminClient.realm(realm).users();
+        List<String> targets = new ArrayList<>();
+        for (int first = 0; ; first += searchPageSize) {
+            List<UserRepresentation> page = users.search(request.getQuery(), first, searchPageSize);
+            page.forEach(user -> targets.add(user.getId()));
+            if (page.size() < searchPageSize) {
+                return targets;
+            }
+        }
+    }
+
+    private static String auditAction(Operation operation) {
+        return switch (operation) {
+            case ENABLE -> "ENABLE_USER";
+            case DISABLE -> "DISABLE_USER";
+            case DELETE -> "DELETE_USER";
+            case SET_ROLES -> "UPDATE_USER";
+        };
+    }
+
+    private static String detail(Operation operation, String userId) {
+        return switch (operation) {
+            case ENABLE -> "Enabled user: ";
+            case DISABLE -> "Disabled user: ";
+            case DELETE -> "Deleted user: ";
+            case SET_ROLES -> "Updated roles of user: ";
+        } + userId;
+    }
+
+    private Counter counter(Operation operation, String outcome) {
+        return Counter.builder("iam.bulk.jobs.operations")
+            .tag("operation", operation.name())
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    /**
+     * État d'un job, partagé entre ses workers
+     */
+    private final class Job {
+
+        private final String id;
+        private final BulkOperationRequest request;
+        private final String requestedBy;
+        private final int concurrency;
+        private final Instant createdAt = Instant.now();
+
+        private volatile String status = "PENDING";
+        private volatile List<String> targets = List.of();
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger activeWorkers = new AtomicInteger();
+        private final AtomicLong succeeded = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final List<BulkJobDTO.Failure> failures = Collections.synchronizedList(new ArrayList<>());
+        private final List<String> pendingAudit = new ArrayList<>();
+
+        Job(String id, BulkOperationRequest request, String requestedBy, int concurrency) {
+            this.id = id;
+            this.request = request;
+            this.requestedBy = requestedBy;
+            this.concurrency = concurrency;
+        }
+
+        void begin(List<String> resolvedTargets, int workers) {
+            targets = resolvedTargets;
+            activeWorkers.set(workers);
+            startedAt = Instant.now();
+            status = "RUNNING";
+        }
+
+        void fail(String message) {
+            error = message;
+            finishedAt = Instant.now();
+            status = "FAILED";
+        }
+
+        void failed(String userId, String message) {
+            failed.incrementAndGet();
+            if (failures.size() < maxReportedFailures) {
+                failures.add(BulkJobDTO.Failure.builder().userId(userId).error(message).build());
+            }
+        }
+
+        synchronized void audit(String detail) {
+            pendingAudit.add(detail);
+            if (pendingAudit.size() >= auditBatchSize) {
+                flushAudit();
+            }
+        }
+
+        synchronized void flushAudit() {
+            if (!pendingAudit.isEmpty()) {
+                auditService.logActions(auditAction(request.getOperation()), requestedBy, "SUCCESS",
+                    List.copyOf(pendingAudit));
+                pendingAudit.clear();
+            }
+        }
+
+        BulkJobDTO toDTO() {
+            long done = succeeded.get();
+            long errors = failed.get();
+            Instant start = startedAt;
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            double elapsedSeconds = start != null ? Duration.between(start, end).toMillis() / 1000.0 : 0;
+
+            List<BulkJobDTO.Failure> reported;
+            synchronized (failures) {
+                reported = failures.isEmpty() ? null : List.copyOf(failures);
+            }
+
+            return BulkJobDTO.builder()
+                .id(id)
+                .operation(request.getOperation().name())
+                .status(status)
+                .requestedBy(requestedBy)
+                .total(start != null ? targets.size() : null)
+                .processed(done + errors)
+                .succeeded(done)
+                .failed(errors)
+                .throughputPerSecond(elapsedSeconds > 0 ? (done + errors) / elapsedSeconds : 0)
+                .createdAt(createdAt)
+                .startedAt(start)
+                .finishedAt(finishedAt)
+                .error(error)
+                .failures(reported)
+                .build();
+        }
+    }
+}
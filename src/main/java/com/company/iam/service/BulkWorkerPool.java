@@ -0,0 +1,55 @@
+// service/BulkWorkerPool.java
+package com.company.iam.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+
+/**
+ * Pool de workers borné pour les opérations en masse vers Keycloak (import, jobs).
+ * Volontairement non exposé comme Executor Spring pour ne pas remplacer l'exécuteur @Async.
+ */
+@Component
+@RequiredArgsConstructor
+public class BulkWorkerPool {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${iam.bulk.threads:16}")
+    private int threads;
+
+    @Value("${iam.bulk.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("iam-bulk-"));
+        executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "iam.bulk");
+    }
+
+    public <T> Future<T> submit(Callable<T> task) {
+        return executor.submit(task);
+    }
+
+    public void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+}
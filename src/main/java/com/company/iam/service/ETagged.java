@@ -0,0 +1,56 @@
+// service/ETagged.java
+package com.company.iam.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+
+/**
+ * Valeur accompagnée de son ETag fort, calculé une fois à partir des champs exposés
+ */
+public record ETagged<T>(T value, String etag) {
+
+    public static <T> ETagged<T> of(T value, Object... parts) {
+        return new ETagged<>(value, etagOf(parts));
+    }
+
+    /**
+     * ETag fort (entre guillemets) : SHA-256 tronqué des champs, séparés sans ambiguïté
+     */
+    public static String etagOf(Object... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object part : parts) {
+                update(digest, part);
+            }
+            byte[] hash = Arrays.copyOf(digest.digest(), 16);
+            return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void update(MessageDigest digest, Object part) {
+        if (part instanceof Collection<?> values) {
+            digest.update((byte) '[');
+            values.forEach(value -> update(digest, value));
+            digest.update((byte) ']');
+            return;
+        }
+        if (part == null) {
+            digest.update((byte) 0);
+            return;
+        }
+        byte[] bytes = part.toString().getBytes(StandardCharsets.UTF_8);
+        digest.update((byte) 1);
+        digest.update(lengthPrefix(bytes.length));
+        digest.update(bytes);
+    }
+
+    private static byte[] lengthPrefix(int length) {
+        return new byte[]{(byte) (length >>> 24), (byte) (length >>> 16), (byte) (length >>> 8), (byte) length};
+    }
+}
@@ -0,0 +1,80 @@
+// service/RefreshTokenCoalescer.java
+package com.company.iam.service;
+
+import com.company.iam.model.dto.TokenResponse;
+import com.company.iam.security.TokenDigest;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Regroupe les rafraîchissements concurrents d'un même refresh token en un seul
+ * appel Keycloak. Le résultat est partagé avec tous les appelants en attente puis
+ * conservé pendant une courte fenêtre de grâce (rotation des refresh tokens).
+ */
+@Slf4j
+@Component
+public class RefreshTokenCoalescer {
+
+    @Value("${keycloak.refresh.grace-period:PT10S}")
+    private Duration gracePeriod;
+
+    @Value("${keycloak.refresh.maximum-size:50000}")
+    private long maximumSize;
+
+    private Cache<String, CompletableFuture<TokenResponse>> grants;
+
+    @PostConstruct
+    void init() {
+        grants = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(gracePeriod)
+            .build();
+    }
+
+    public TokenResponse refresh(String refreshToken, Supplier<TokenResponse> grant) {
+        String key = TokenDigest.sha256(refreshToken);
+        CompletableFuture<TokenResponse> pending = new CompletableFuture<>();
+        CompletableFuture<TokenResponse> existing = grants.asMap().putIfAbsent(key, pending);
+
+        if (existing != null) {
+            log.debug("Joining in-flight refresh grant");
+            return await(existing);
+        }
+
+        try {
+            pending.complete(grant.get());
+        } catch (RuntimeException e) {
+            // Un échec n'est partagé qu'avec les appelants déjà en attente
+            grants.asMap().remove(key, pending);
+            pending.completeExceptionally(e);
+        }
+        return await(pending);
+    }
+
+    /**
+     * Oublier le résultat partagé d'un refresh token (logout) : il ne doit plus être rejoué
+     */
+    public void evict(String refreshToken) {
+        grants.invalidate(TokenDigest.sha256(refreshToken));
+    }
+
+    private TokenResponse await(CompletableFuture<TokenResponse> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
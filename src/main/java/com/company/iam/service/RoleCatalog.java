@@ -0,0 +1,132 @@
+// service/RoleCatalog.java
+package com.company.iam.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.RolesResource;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Catalogue en mémoire des rôles du realm : instantané immuable, indexé par nom,
+ * remplacé atomiquement à chaque rafraîchissement.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoleCatalog {
+
+    private final Keycloak keycloakAdminClient;
+
+    @Value("${keycloak.realm}")
+    private String realm;
+
+    private volatile Snapshot snapshot;
+
+    private record Snapshot(List<RoleRepresentation> roles,
+                            Map<String, RoleRepresentation> byName,
+                            Map<String, Set<String>> composites,
+                            Map<String, String> etagsByName,
+                            String etag) {
+    }
+
+    public List<RoleRepresentation> roles() {
+        return current().roles();
+    }
+
+    /**
+     * Liste des rôles et ETag de l'instantané dont elle provient
+     */
+    public ETagged<List<RoleRepresentation>> taggedRoles() {
+        Snapshot current = current();
+        return new ETagged<>(current.roles(), current.etag());
+    }
+
+    public Optional<RoleRepresentation> find(String roleName) {
+        return Optional.ofNullable(current().byName().get(roleName));
+    }
+
+    /**
+     * Rôle et son ETag, calculé une fois à la construction de l'instantané
+     */
+    public Optional<ETagged<RoleRepresentation>> findTagged(String roleName) {
+        Snapshot current = current();
+        RoleRepresentation role = current.byName().get(roleName);
+        return role == null ? Optional.empty() : Optional.of(new ETagged<>(role, current.etagsByName().get(roleName)));
+    }
+
+    /**
+     * Fermeture transitive des rôles composites (les rôles donnés inclus)
+     */
+    public Set<String> expand(Collection<String> roleNames) {
+        Map<String, Set<String>> composites = current().composites();
+        Set<String> effective = new HashSet<>();
+        Deque<String> pending = new ArrayDeque<>(roleNames);
+        while (!pending.isEmpty()) {
+            String role = pending.pop();
+            if (effective.add(role)) {
+                pending.addAll(composites.getOrDefault(role, Set.of()));
+            }
+        }
+        return effective;
+    }
+
+    @Scheduled(fixedDelayString = "${iam.role-catalog.refresh-interval:PT1M}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.warn("Could not refresh role catalog, keeping previous snapshot: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recharger le catalogue depuis Keycloak (après createRole / deleteRole)
+     */
+    public synchronized void refresh() {
+        RolesResource rolesResource = keycloakAdminClient.realm(realm).roles();
+        List<RoleRepresentation> roles = List.copyOf(rolesResource.list());
+
+        Map<String, Set<String>> composites = new HashMap<>();
+        for (RoleRepresentation role : roles) {
+            if (role.isComposite()) {
+                composites.put(role.getName(), rolesResource.get(role.getName()).getRealmRoleComposites()
+                    .stream()
+                    .map(RoleRepresentation::getName)
+                    .collect(Collectors.toUnmodifiableSet()));
+            }
+        }
+
+        Map<String, RoleRepresentation> byName = roles.stream()
+            .collect(Collectors.toUnmodifiableMap(RoleRepresentation::getName, role -> role));
+        List<Object> etagParts = new ArrayList<>(roles.size() * 4);
+        Map<String, String> etagsByName = new HashMap<>(roles.size() * 2);
+        for (RoleRepresentation role : roles) {
+            List<Object> parts = Arrays.asList(role.getId(), role.getName(), role.getDescription(), role.isComposite());
+            etagParts.addAll(parts);
+            etagsByName.put(role.getName(), ETagged.etagOf(parts.toArray()));
+        }
+        snapshot = new Snapshot(roles, byName, Map.copyOf(composites), Map.copyOf(etagsByName),
+            ETagged.etagOf(etagParts));
+        log.debug("Role catalog refreshed: {} roles", roles.size());
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,184 @@
+// service/RoleMembershipIndex.java
+package com.company.iam.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.GroupResource;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.admin.client.resource.RoleResource;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Index rôle → membres construit en O(rôles + groupes) appels Keycloak, puis inversé
+ * en rôles effectifs (realm) par utilisateur. Permet de lister une page d'utilisateurs
+ * sans un appel listEffective() par utilisateur.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoleMembershipIndex {
+
+    private final Keycloak keycloakAdminClient;
+    private final RoleCatalog roleCatalog;
+
+    @Value("${keycloak.realm}")
+    private String realm;
+
+    @Value("${iam.role-index.page-size:1000}")
+    private int pageSize;
+
+    private volatile Snapshot snapshot;
+    private final Map<String, Long> invalidatedAt = new ConcurrentHashMap<>();
+    private final AtomicBoolean building = new AtomicBoolean();
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+
+    private record Snapshot(long builtAt, Map<String, List<String>> rolesByUser) {
+    }
+
+    /**
+     * Rôles effectifs connus de l'index, ou vide si l'utilisateur doit être lu dans Keycloak
+     * (index pas encore construit, utilisateur créé ou modifié depuis la dernière construction)
+     */
+    public Optional<List<String>> effectiveRoles(String userId) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return Optional.empty();
+        }
+        Long invalidated = invalidatedAt.get(userId);
+        if (invalidated != null && invalidated >= current.builtAt()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(current.rolesByUser().get(userId));
+    }
+
+    /**
+     * Écarter l'entrée d'un utilisateur jusqu'à la prochaine reconstruction
+     */
+    public void invalidate(String userId) {
+        invalidatedAt.put(userId, System.currentTimeMillis());
+    }
+
+    /**
+     * Retirer un rôle supprimé de l'instantané courant, qui reste servi jusqu'à la prochaine
+     * reconstruction (les rôles qu'il impliquait par composition n'y sont corrigés qu'à ce moment)
+     */
+    public synchronized void removeRole(String roleName) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        Map<List<String>, List<String>> interned = new HashMap<>();
+        Map<String, List<String>> rolesByUser = new HashMap<>(current.rolesByUser().size() * 2);
+        current.rolesByUser().forEach((userId, roles) -> rolesByUser.put(userId, !roles.contains(roleName)
+            ? roles
+            : interned.computeIfAbsent(roles, shared -> shared.stream()
+                .filter(role -> !role.equals(roleName))
+                .toList())));
+        snapshot = new Snapshot(current.builtAt(), Collections.unmodifiableMap(rolesByUser));
+    }
+
+    /**
+     * Reconstruction hors du thread appelant, l'instantané courant restant servi entre-temps
+     */
+    @Async
+    public void refreshInBackground() {
+        refresh();
+    }
+
+    /**
+     * Une seule construction à la fois : une demande reçue pendant une construction en cours
+     * en relance une à la fin, partant d'un état Keycloak postérieur à la demande
+     */
+    @Scheduled(fixedDelayString = "${iam.role-index.refresh-interval:PT5M}")
+    public void refresh() {
+        rebuildRequested.set(true);
+        while (rebuildRequested.get() && building.compareAndSet(false, true)) {
+            try {
+                rebuildRequested.set(false);
+                rebuild();
+            } finally {
+                building.set(false);
+            }
+        }
+    }
+
+    private void rebuild() {
+        long startedAt = System.currentTimeMillis();
+        try {
+            Map<String, List<String>> rolesByUser = build();
+            synchronized (this) {
+                // Ne jamais remplacer un instantané plus récent
+                Snapshot current = snapshot;
+                if (current != null && current.builtAt() > startedAt) {
+                    return;
+                }
+                snapshot = new Snapshot(startedAt, rolesByUser);
+            }
+            invalidatedAt.values().removeIf(invalidated -> invalidated < startedAt);
+            log.info("Role membership index built for {} users in {} ms",
+                rolesByUser.size(), System.currentTimeMillis() - startedAt);
+        } catch (Exception e) {
+            log.warn("Could not build role membership index: {}", e.getMessage());
+        }
+    }
+
+    private Map<String, List<String>> build() {
+        RealmResource realmResource = keycloakAdminClient.realm(realm);
+        List<RoleRepresentation> roles = roleCatalog.roles();
+
+        // Mappings directs : utilisateurs et groupes (avec leurs sous-groupes)
+        Map<String, Set<String>> directRolesByUser = new HashMap<>();
+        for (RoleRepresentation role : roles) {
+            String roleName = role.getName();
+            RoleResource roleResource = realmResource.roles().get(roleName);
+            Consumer<UserRepresentation> grant = user ->
+                directRolesByUser.computeIfAbsent(user.getId(), id -> new HashSet<>()).add(roleName);
+
+            forEachPage((first, max) -> roleResource.getUserMembers(first, max), grant);
+            forEachPage((first, max) -> roleResource.getRoleGroupMembers(first, max),
+                group -> forEachGroupMember(realmResource, group.getId(), grant));
+        }
+
+        // Rôles effectifs, listes partagées entre utilisateurs ayant les mêmes rôles
+        Map<Set<String>, List<String>> interned = new HashMap<>();
+        Map<String, List<String>> rolesByUser = new HashMap<>(directRolesByUser.size() * 2);
+        directRolesByUser.forEach((userId, direct) -> rolesByUser.put(userId,
+            interned.computeIfAbsent(roleCatalog.expand(direct),
+                effective -> List.copyOf(new TreeSet<>(effective)))));
+        return Collections.unmodifiableMap(rolesByUser);
+    }
+
+    private void forEachGroupMember(RealmResource realmResource, String groupId,
+                                    Consumer<UserRepresentation> action) {
+        GroupResource group = realmResource.groups().group(groupId);
+        forEachPage((first, max) -> group.members(first, max, true), action);
+        forEachPage((first, max) -> group.getSubGroups(first, max, true),
+            subGroup -> forEachGroupMember(realmResource, subGroup.getId(), action));
+    }
+
+    private <T> void forEachPage(PageFetcher<T> fetcher, Consumer<T> action) {
+        for (int first = 0; ; first += pageSize) {
+            Collection<T> page = fetcher.fetch(first, pageSize);
+            page.forEach(action);
+            if (page.size() < pageSize) {
+                return;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface PageFetcher<T> {
+        Collection<T> fetch(int first, int max);
+    }
+}
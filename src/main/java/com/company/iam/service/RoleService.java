@@ -21,6 +21,8 @@ public class RoleService {
 
     private final Keycloak keycloakAdminClient;
     private final AuditService auditService;
+    private final RoleCatalog roleCatalog;
+    private final RoleMembershipIndex roleMembershipIndex;
 
     @Value("${keycloak.realm}")
     private String realm;
@@ -35,6 +37,7 @@ public class RoleService {
 
         try {
             keycloakAdminClient.realm(realm).roles().create(role);
+            roleCatalog.refresh();
             auditService.logAction("CREATE_ROLE", createdBy, null, "SUCCESS",
                 "Created role: " + roleDTO.getName());
             return getRoleByName(roleDTO.getName());
@@ -45,26 +48,41 @@ public class RoleService {
     }
 
     /**
-     * Lister tous les rôles
+     * Lister tous les rôles (catalogue en mémoire)
      */
     public List<RoleDTO> getAllRoles() {
-        return keycloakAdminClient.realm(realm).roles().list()
+        return roleCatalog.roles()
             .stream()
             .map(this::mapToDTO)
             .collect(Collectors.toList());
     }
 
     /**
-     * Obtenir un rôle par nom
+     * Lister tous les rôles avec l'ETag du catalogue
+     */
+    public ETagged<List<RoleDTO>> getTaggedRoles() {
+        ETagged<List<RoleRepresentation>> roles = roleCatalog.taggedRoles();
+        return new ETagged<>(roles.value().stream()
+            .map(this::mapToDTO)
+            .collect(Collectors.toList()), roles.etag());
+    }
+
+    /**
+     * Obtenir un rôle par nom avec son ETag (celui de l'entrée du catalogue, sans recalcul)
+     */
+    public ETagged<RoleDTO> getTaggedRoleByName(String roleName) {
+        return roleCatalog.findTagged(roleName)
+            .map(tagged -> new ETagged<>(mapToDTO(tagged.value()), tagged.etag()))
+            .orElseThrow(() -> new IamException("Role not found: " + roleName, HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Obtenir un rôle par nom (catalogue en mémoire)
      */
     public RoleDTO getRoleByName(String roleName) {
-        try {
-            RoleRepresentation role = keycloakAdminClient.realm(realm)
-                .roles().get(roleName).toRepresentation();
-            return mapToDTO(role);
-        } catch (Exception e) {
-            throw new IamException("Role not found: " + roleName, HttpStatus.NOT_FOUND);
-        }
+        return roleCatalog.find(roleName)
+            .map(this::mapToDTO)
+            .orElseThrow(() -> new IamException("Role not found: " + roleName, HttpStatus.NOT_FOUND));
     }
 
     /**
@@ -73,6 +91,9 @@ public class RoleService {
     public void deleteRole(String roleName, String deletedBy) {
         try {
             keycloakAdminClient.realm(realm).roles().get(roleName).remove();
+            roleCatalog.refresh();
+            roleMembershipIndex.removeRole(roleName);
+            roleMembershipIndex.refreshInBackground();
             auditService.logAction("DELETE_ROLE", deletedBy, null, "SUCCESS",
                 "Deleted role: " + roleName);
         } catch (Exception e) {
@@ -0,0 +1,159 @@
+// service/UserExportService.java
+package com.company.iam.service;
+
+import com.company.iam.exception.IamException;
+import com.company.iam.model.dto.UserDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.UsersResource;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Export NDJSON de tous les utilisateurs du realm, par lots de taille fixe.
+ * L'API admin Keycloak ne pagine que par offset : chaque lot est relu avec un recouvrement
+ * et repositionné sur le dernier utilisateur émis (ancre), ce qui rend le curseur insensible
+ * aux créations / suppressions survenues entre deux lots.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserExportService {
+
+    private final Keycloak keycloakAdminClient;
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${keycloak.realm}")
+    private String realm;
+
+    @Value("${iam.export.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${iam.export.overlap:32}")
+    private int overlap;
+
+    @Value("${iam.export.max-overlap:4096}")
+    private int maxOverlap;
+
+    /**
+     * Position de reprise : offset du prochain utilisateur et identifiant du dernier émis
+     */
+    public record Cursor(int offset, String lastUserId) {
+
+        public static final Cursor START = new Cursor(0, null);
+
+        public String encode() {
+            String raw = offset + ":" + (lastUserId != null ? lastUserId : "");
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public static Cursor decode(String encoded) {
+            if (encoded == null || encoded.isBlank()) {
+                return START;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+                int separator = raw.indexOf(':');
+                int offset = Integer.parseInt(raw.substring(0, separator));
+                String lastUserId = raw.substring(separator + 1);
+                if (offset < 0) {
+                    throw new IllegalArgumentException("negative offset");
+                }
+                return new Cursor(offset, lastUserId.isEmpty() ? null : lastUserId);
+            } catch (RuntimeException e) {
+                throw new IamException("Invalid export cursor", HttpStatus.BAD_REQUEST);
+            }
+        }
+    }
+
+    /**
+     * Écrire une ligne par utilisateur, puis après chaque lot une ligne {"cursor": "..."}
+     * permettant de reprendre l'export après le dernier utilisateur reçu
+     */
+    public void exportUsers(Cursor cursor, OutputStream out) throws IOException {
+        UsersResource users = keycloakAdminClient.realm(realm).users();
+        long exported = 0;
+
+        while (true) {
+            Chunk chunk = nextChunk(users, cursor);
+            if (chunk.users().isEmpty()) {
+                if (chunk.last()) {
+                    break;
+                }
+                // Fenêtre entièrement déjà émise (créations avant l'ancre) : avancer sans écrire
+                cursor = chunk.next();
+                continue;
+            }
+
+            // Rôles résolus pour tout le lot
+            for (UserDTO user : userService.toDTOs(chunk.users())) {
+                out.write(objectMapper.writeValueAsBytes(user));
+                out.write('\n');
+            }
+            cursor = chunk.next();
+            out.write(objectMapper.writeValueAsBytes(Map.of("cursor", cursor.encode())));
+            out.write('\n');
+            out.flush();
+
+            exported += chunk.users().size();
+            if (chunk.last()) {
+                break;
+            }
+        }
+        log.info("User export finished: {} users", exported);
+    }
+
+    private record Chunk(List<UserRepresentation> users, Cursor next, boolean last) {
+    }
+
+    /**
+     * Lire le lot suivant l'ancre du curseur. Si l'ancre n'est pas dans la fenêtre (suppressions
+     * avant elle), la fenêtre est élargie vers l'arrière ; si elle a disparu, reprise à l'offset.
+     */
+    private Chunk nextChunk(UsersResource users, Cursor cursor) {
+        int back = cursor.lastUserId() == null ? 0 : Math.min(cursor.offset(), overlap);
+        while (true) {
+            int from = cursor.offset() - back;
+            List<UserRepresentation> window = users.search(null, from, back + chunkSize, null, true);
+
+            int start = back;
+            if (cursor.lastUserId() != null) {
+                int anchor = indexOf(window, cursor.lastUserId());
+                if (anchor < 0 && from > 0 && back < maxOverlap) {
+                    back = Math.min(cursor.offset(), Math.max(back * 2, 1));
+                    continue;
+                }
+                start = anchor >= 0 ? anchor + 1 : Math.min(back, window.size());
+            }
+
+            List<UserRepresentation> chunk = window.subList(Math.min(start, window.size()), window.size());
+            boolean last = window.size() < back + chunkSize;
+            if (chunk.isEmpty()) {
+                return new Chunk(chunk, new Cursor(from + window.size(), cursor.lastUserId()), last);
+            }
+            UserRepresentation lastUser = chunk.get(chunk.size() - 1);
+            return new Chunk(chunk, new Cursor(from + window.size(), lastUser.getId()), last);
+        }
+    }
+
+    private static int indexOf(List<UserRepresentation> window, String userId) {
+        for (int i = 0; i < window.size(); i++) {
+            if (userId.equals(window.get(i).getId())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,441 @@
+// service/UserImportService.java
+package com.company.iam.service;
+
+import com.company.iam.exception.IamException;
+import com.company.iam.model.dto.UserDTO;
+import com.company.iam.model.dto.UserImportResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.ws.rs.core.Response;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.representations.idm.PartialImportRepresentation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+/**
+ * Import en masse d'utilisateurs : le corps (NDJSON ou CSV) est lu ligne à ligne, les lignes
+ * sont provisionnées en parallèle borné sur le BulkWorkerPool et chaque résultat est écrit
+ * en NDJSON dès qu'il est connu. Rien n'est chargé en entier en mémoire.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserImportService {
+
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private static final String CREATED = "CREATED";
+    private static final String EXISTS = "EXISTS";
+    private static final String FAILED = "FAILED";
+
+    private final Keycloak keycloakAdminClient;
+    private final UserService userService;
+    private final AuditService auditService;
+    private final BulkWorkerPool bulkWorkerPool;
+    private final UserSearchIndex userSearchIndex;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Value("${keycloak.realm}")
+    private String realm;
+
+    @Value("${iam.bulk.import.parallelism:8}")
+    private int parallelism;
+
+    @Value("${iam.bulk.import.partial-import-batch-size:500}")
+    private int partialImportBatchSize;
+
+    @Value("${iam.bulk.import.audit-batch-size:500}")
+    private int auditBatchSize;
+
+    public enum Format {
+        NDJSON, CSV;
+
+        public static Format of(MediaType contentType) {
+            if (contentType != null && contentType.isCompatibleWith(MediaType.parseMediaType(TEXT_CSV_VALUE))) {
+                return CSV;
+            }
+            return NDJSON;
+        }
+    }
+
+    private record Row(long line, UserDTO user) {
+    }
+
+    /**
+     * Importer les utilisateurs lus sur {@code in} et écrire un résultat NDJSON par ligne sur {@code out}.
+     * Les résultats arrivent dans l'ordre de traitement, le numéro de ligne permet de les rapprocher.
+     *
+     * @param partialImport créer les utilisateurs par lots via l'import partiel du realm
+     *                      (un appel Keycloak par lot au lieu d'un à deux par utilisateur)
+     */
+    public void importUsers(InputStream in, Format format, boolean partialImport,
+                            String importedBy, OutputStream out) throws IOException {
+        Semaphore inFlight = new Semaphore(parallelism);
+        BlockingQueue<UserImportResult> results = new LinkedBlockingQueue<>();
+        Writer writer = new Writer(out);
+        ImportAudit audit = new ImportAudit(importedBy);
+        List<Row> batch = new ArrayList<>(partialImport ? partialImportBatchSize : 0);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            RowParser parser = format == Format.CSV ? new CsvRowParser(reader.readLine()) : this::parseJson;
+            long lineNumber = format == Format.CSV ? 1 : 0;
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                Row row;
+                try {
+                    row = new Row(lineNumber, parser.parse(line));
+                    validate(row.user());
+                } catch (Exception e) {
+                    writer.write(failed(lineNumber, null, e));
+                    continue;
+                }
+
+                if (partialImport) {
+                    batch.add(row);
+                    if (batch.size() >= partialImportBatchSize) {
+                        dispatch(inFlight, results, writer, audit, List.copyOf(batch), true);
+                        batch.clear();
+                    }
+                } else {
+                    dispatch(inFlight, results, writer, audit, List.of(row), false);
+                }
+                writer.drain(results);
+            }
+
+            if (!batch.isEmpty()) {
+                dispatch(inFlight, results, writer, audit, List.copyOf(batch), true);
+            }
+
+            // Attendre la fin des tâches en vol en continuant à diffuser leurs résultats
+            while (!inFlight.tryAcquire(parallelism, 100, TimeUnit.MILLISECONDS)) {
+                writer.drain(results);
+            }
+            inFlight.release(parallelism);
+            writer.drain(results);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IamException("User import interrupted", HttpStatus.SERVICE_UNAVAILABLE);
+        } finally {
+            // Client déconnecté ou écriture en échec : les lots en vol créent quand même
+            // leurs utilisateurs, attendre qu'ils aient tous enregistré leur audit
+            inFlight.acquireUninterruptibly(parallelism);
+            audit.flush();
+        }
+
+        log.info("User import by {} finished: {} created, {} existing, {} failed",
+            importedBy, writer.created, writer.existing, writer.failed);
+    }
+
+    /**
+     * Soumettre un lot au pool ; bloque tant que {@code parallelism} lots sont déjà en vol
+     */
+    private void dispatch(Semaphore inFlight, BlockingQueue<UserImportResult> results,
+                          Writer writer, ImportAudit audit, List<Row> rows, boolean batched)
+            throws InterruptedException, IOException {
+        while (!inFlight.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+            writer.drain(results);
+        }
+        try {
+            bulkWorkerPool.execute(() -> {
+                try {
+                    List<UserImportResult> outcomes = batched ? partialImport(rows) : List.of(provision(rows.get(0)));
+                    results.addAll(outcomes);
+                    audit.record(outcomes);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            for (Row row : rows) {
+                writer.write(failed(row.line(), row.user().getUsername(), e));
+            }
+        }
+    }
+
+    private UserImportResult provision(Row row) {
+        String username = row.user().getUsername();
+        try {
+            UserDTO created = userService.provisionUser(row.user());
+            return result(row.line(), username, CREATED).id(created.getId()).build();
+        } catch (IamException e) {
+            if (e.getStatus() == HttpStatus.CONFLICT) {
+                return result(row.line(), username, EXISTS).build();
+            }
+            return failed(row.line(), username, e);
+        } catch (Exception e) {
+            return failed(row.line(), username, e);
+        }
+    }
+
+    /**
+     * Import partiel du realm : un appel pour tout le lot, les utilisateurs existants sont ignorés
+     */
+    private List<UserImportResult> partialImport(List<Row> rows) {
+        PartialImportRepresentation representation = new PartialImportRepresentation();
+        representation.setIfResourceExists(PartialImportRepresentation.Policy.SKIP.name());
+        representation.setUsers(rows.stream()
+            .map(row -> userService.importRepresentation(row.user()))
+            .collect(Collectors.toList()));
+
+        try (Response response = keycloakAdminClient.realm(realm).partialImport(representation)) {
+            if (response.getStatus() != 200) {
+                throw new IamException("Partial import failed with status " + response.getStatus(),
+                    HttpStatus.BAD_GATEWAY);
+            }
+
+            Map<String, JsonNode> outcomes = new HashMap<>();
+            for (JsonNode outcome : objectMapper.readTree(response.readEntity(String.class)).path("results")) {
+                if ("USER".equals(outcome.path("resourceType").asText())) {
+                    outcomes.put(outcome.path("resourceName").asText().toLowerCase(Locale.ROOT), outcome);
+                }
+            }
+
+            List<UserImportResult> batchResults = new ArrayList<>(rows.size());
+            for (Row row : rows) {
+                String username = row.user().getUsername();
+                JsonNode outcome = outcomes.get(username.toLowerCase(Locale.ROOT));
+                if (outcome == null) {
+                    batchResults.add(result(row.line(), username, FAILED)
+                        .error("Missing from partial import results").build());
+                } else if ("ADDED".equals(outcome.path("action").asText())) {
+                    String id = outcome.path("id").asText(null);
+                    if (id != null) {
+                        row.user().setId(id);
+                        userSearchIndex.upsert(row.user());
+                    }
+                    batchResults.add(result(row.line(), username, CREATED).id(id).build());
+                } else {
+                    batchResults.add(result(row.line(), username, EXISTS).build());
+                }
+            }
+            return batchResults;
+        } catch (Exception e) {
+            log.warn("Partial import of {} users failed: {}", rows.size(), e.getMessage());
+            return rows.stream()
+                .map(row -> failed(row.line(), row.user().getUsername(), e))
+                .collect(Collectors.toList());
+        }
+    }
+
+    private void validate(UserDTO user) {
+        Set<ConstraintViolation<UserDTO>> violations = validator.validate(user);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(", ")));
+        }
+    }
+
+    private UserDTO parseJson(String line) throws IOException {
+        JsonNode node = objectMapper.readTree(line);
+        List<String> roles = null;
+        if (node.hasNonNull("roles")) {
+            roles = new ArrayList<>();
+            for (JsonNode role : node.get("roles")) {
+                roles.add(role.asText());
+            }
+        }
+        return UserDTO.builder()
+            .username(text(node, "username"))
+            .email(text(node, "email"))
+            .firstName(text(node, "firstName"))
+            .lastName(text(node, "lastName"))
+            .password(text(node, "password"))
+            .enabled(node.path("enabled").asBoolean(false))
+            .roles(roles)
+            .build();
+    }
+
+    private static String text(JsonNode node, String field) {
+        return node.hasNonNull(field) ? node.get(field).asText() : null;
+    }
+
+    private static UserImportResult.UserImportResultBuilder result(long line, String username, String status) {
+        return UserImportResult.builder().line(line).username(username).status(status);
+    }
+
+    private static UserImportResult failed(long line, String username, Exception e) {
+        return result(line, username, FAILED).error(e.getMessage()).build();
+    }
+
+    // ─── Lecture ──────────────────────────────────────────────────
+
+    @FunctionalInterface
+    private interface RowParser {
+        UserDTO parse(String line) throws IOException;
+    }
+
+    /**
+     * CSV avec ligne d'en-tête (username,email,firstName,lastName,password,enabled,roles),
+     * champs entre guillemets autorisés, rôles séparés par '|'
+     */
+    private static final class CsvRowParser implements RowParser {
+
+        private final Map<String, Integer> columns = new HashMap<>();
+
+        CsvRowParser(String header) {
+            if (header == null) {
+                throw new IamException("CSV header is missing", HttpStatus.BAD_REQUEST);
+            }
+            List<String> names = split(header);
+            for (int i = 0; i < names.size(); i++) {
+                columns.put(names.get(i).trim(), i);
+            }
+            if (!columns.containsKey("username")) {
+                throw new IamException("CSV header must contain a username column", HttpStatus.BAD_REQUEST);
+            }
+        }
+
+        @Override
+        public UserDTO parse(String line) {
+            List<String> fields = split(line);
+            String roles = field(fields, "roles");
+            String enabled = field(fields, "enabled");
+            return UserDTO.builder()
+                .username(field(fields, "username"))
+                .email(field(fields, "email"))
+                .firstName(field(fields, "firstName"))
+                .lastName(field(fields, "lastName"))
+                .password(field(fields, "password"))
+                .enabled(Boolean.parseBoolean(enabled))
+                .roles(roles == null ? null : Arrays.stream(roles.split("\\|"))
+                    .map(String::trim)
+                    .filter(role -> !role.isEmpty())
+                    .collect(Collectors.toList()))
+                .build();
+        }
+
+        private String field(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+                return null;
+            }
+            return fields.get(index);
+        }
+
+        private static List<String> split(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        current.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(current.toString());
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            }
+            fields.add(current.toString());
+            return fields;
+        }
+    }
+
+    // ─── Écriture ─────────────────────────────────────────────────
+
+    /**
+     * Diffusion des résultats ; utilisé uniquement par le thread de la requête
+     */
+    private final class Writer {
+
+        private final OutputStream out;
+        private long created;
+        private long existing;
+        private long failed;
+
+        Writer(OutputStream out) {
+            this.out = out;
+        }
+
+        void drain(BlockingQueue<UserImportResult> results) throws IOException {
+            UserImportResult result = results.poll();
+            if (result == null) {
+                return;
+            }
+            do {
+                append(result);
+            } while ((result = results.poll()) != null);
+            out.flush();
+        }
+
+        void write(UserImportResult result) throws IOException {
+            append(result);
+            out.flush();
+        }
+
+        private void append(UserImportResult result) throws IOException {
+            switch (result.getStatus()) {
+                case CREATED -> created++;
+                case EXISTS -> existing++;
+                default -> failed++;
+            }
+            out.write(objectMapper.writeValueAsBytes(result));
+            out.write('\n');
+        }
+    }
+
+    /**
+     * Audit CREATE_USER par lots, alimenté par les tâches du pool dès qu'un utilisateur est créé :
+     * ne dépend pas de l'écriture de la réponse
+     */
+    private final class ImportAudit {
+
+        private final String importedBy;
+        private final List<String> pending = new ArrayList<>();
+
+        ImportAudit(String importedBy) {
+            this.importedBy = importedBy;
+        }
+
+        synchronized void record(List<UserImportResult> outcomes) {
+            for (UserImportResult outcome : outcomes) {
+                if (CREATED.equals(outcome.getStatus())) {
+                    pending.add("Created user: " + outcome.getUsername());
+                }
+            }
+            if (pending.size() >= auditBatchSize) {
+                flush();
+            }
+        }
+
+        synchronized void flush() {
+            if (!pending.isEmpty()) {
+                auditService.logActions("CREATE_USER", importedBy, "SUCCESS", List.copyOf(pending));
+                pending.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,482 @@
+// service/UserSearchIndex.java
+package com.company.iam.service;
+
+import com.company.iam.model.dto.UserDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.UsersResource;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.regex.Pattern;
+
+/**
+ * Index de recherche en mémoire sur username, email, prénom et nom : préfixes de termes
+ * (arbres triés par champ) et sous-chaînes (trigrammes). Tenu à jour par nos propres écritures
+ * et reconstruit périodiquement depuis Keycloak pour rattraper les modifications externes.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserSearchIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{Alnum}]+");
+
+    private final Keycloak keycloakAdminClient;
+
+    @Value("${keycloak.realm}")
+    private String realm;
+
+    @Value("${iam.search.page-size:1000}")
+    private int pageSize;
+
+    @Value("${iam.search.max-candidates:2000}")
+    private int maxCandidates;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index;                              // protégé par lock
+    private List<Consumer<Index>> pendingDuringBuild; // non nul pendant une reconstruction
+
+    /**
+     * Champs indexés, avec leur poids dans le classement
+     */
+    private enum Field {
+        USERNAME(4), EMAIL(3), FIRST_NAME(2), LAST_NAME(2);
+
+        private final int weight;
+
+        Field(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Résultats classés (correspondance exacte, puis préfixe, puis sous-chaîne ; champ pondéré),
+     * ou vide si l'index n'est pas encore construit
+     */
+    public Optional<List<UserDTO>> search(String query, int limit) {
+        lock.readLock().lock();
+        try {
+            if (index == null) {
+                return Optional.empty();
+            }
+            return Optional.of(index.search(normalize(query), limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Indexer (ou ré-indexer) un utilisateur ; seuls les champs de profil sont conservés
+     */
+    public void upsert(UserDTO user) {
+        UserDTO entry = UserDTO.builder()
+            .id(user.getId())
+            .username(user.getUsername())
+            .email(user.getEmail())
+            .firstName(user.getFirstName())
+            .lastName(user.getLastName())
+            .enabled(user.isEnabled())
+            .roles(List.of())
+            .build();
+        apply(current -> current.upsert(entry));
+    }
+
+    public void remove(String userId) {
+        apply(current -> current.remove(userId));
+    }
+
+    private void apply(Consumer<Index> change) {
+        lock.writeLock().lock();
+        try {
+            if (index != null) {
+                change.accept(index);
+            }
+            if (pendingDuringBuild != null) {
+                pendingDuringBuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reconstruction complète ; les écritures survenues pendant la lecture de Keycloak
+     * sont rejouées sur le nouvel index avant la bascule
+     */
+    @Scheduled(fixedDelayString = "${iam.search.reconcile-interval:PT10M}")
+    public void reconcile() {
+        long startedAt = System.currentTimeMillis();
+        setPending(new ArrayList<>());
+        try {
+            Index fresh = build();
+            lock.writeLock().lock();
+            try {
+                pendingDuringBuild.forEach(change -> change.accept(fresh));
+                index = fresh;
+                pendingDuringBuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("User search index built for {} users in {} ms",
+                fresh.size(), System.currentTimeMillis() - startedAt);
+        } catch (Exception e) {
+            setPending(null);
+            log.warn("Could not build user search index: {}", e.getMessage());
+        }
+    }
+
+    private void setPending(List<Consumer<Index>> pending) {
+        lock.writeLock().lock();
+        try {
+            pendingDuringBuild = pending;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Index build() {
+        UsersResource users = keycloakAdminClient.realm(realm).users();
+        Index fresh = new Index();
+        for (int first = 0; ; first += pageSize) {
+            List<UserRepresentation> page = users.search(null, first, pageSize, null, true);
+            for (UserRepresentation user : page) {
+                fresh.upsert(UserDTO.builder()
+                    .id(user.getId())
+                    .username(user.getUsername())
+                    .email(user.getEmail())
+                    .firstName(user.getFirstName())
+                    .lastName(user.getLastName())
+                    .enabled(Boolean.TRUE.equals(user.isEnabled()))
+                    .roles(List.of())
+                    .build());
+            }
+            if (page.size() < pageSize) {
+                return fresh;
+            }
+        }
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String stripped = DIACRITICS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        return stripped.toLowerCase(Locale.ROOT).trim();
+    }
+
+    // ─── Structure de l'index ─────────────────────────────────────
+
+    private record Doc(UserDTO user, String[] values) {
+    }
+
+    private final class Index {
+
+        private final List<Doc> docs = new ArrayList<>();
+        private final Map<String, Integer> docIds = new HashMap<>();
+        private final EnumMap<Field, TreeMap<String, IntList>> terms = new EnumMap<>(Field.class);
+        private final Map<String, IntList> trigrams = new HashMap<>();
+
+        Index() {
+            for (Field field : Field.values()) {
+                terms.put(field, new TreeMap<>());
+            }
+        }
+
+        int size() {
+            return docIds.size();
+        }
+
+        void upsert(UserDTO user) {
+            Integer existing = docIds.get(user.getId());
+            int docId;
+            if (existing != null) {
+                unindex(existing);
+                docId = existing;
+            } else {
+                docId = docs.size();
+                docs.add(null);
+                docIds.put(user.getId(), docId);
+            }
+
+            String[] values = {
+                normalize(user.getUsername()), normalize(user.getEmail()),
+                normalize(user.getFirstName()), normalize(user.getLastName())};
+            docs.set(docId, new Doc(user, values));
+            for (Field field : Field.values()) {
+                for (String term : termsOf(values[field.ordinal()])) {
+                    terms.get(field).computeIfAbsent(term, t -> new IntList()).add(docId);
+                }
+            }
+            for (String trigram : trigramsOf(values)) {
+                trigrams.computeIfAbsent(trigram, t -> new IntList()).add(docId);
+            }
+        }
+
+        void remove(String userId) {
+            Integer docId = docIds.remove(userId);
+            if (docId != null) {
+                unindex(docId);
+                docs.set(docId, null);
+            }
+        }
+
+        private void unindex(int docId) {
+            String[] values = docs.get(docId).values();
+            for (Field field : Field.values()) {
+                TreeMap<String, IntList> fieldTerms = terms.get(field);
+                for (String term : termsOf(values[field.ordinal()])) {
+                    removePosting(fieldTerms, term, docId);
+                }
+            }
+            for (String trigram : trigramsOf(values)) {
+                removePosting(trigrams, trigram, docId);
+            }
+        }
+
+        private void removePosting(Map<String, IntList> postings, String key, int docId) {
+            IntList list = postings.get(key);
+            if (list != null && list.remove(docId) && list.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+
+        /**
+         * Requête découpée en mots, tous requis (sur n'importe quel champ) comme dans la recherche
+         * Keycloak ; score = somme des scores des mots. Le mot le plus long est cherché dans l'index,
+         * les suivants ne sont évalués que sur ses candidats.
+         */
+        List<UserDTO> search(String query, int limit) {
+            List<String> words = wordsOf(query);
+            if (words.isEmpty() || limit <= 0) {
+                return List.of();
+            }
+            Map<Integer, Integer> scores = candidates(words.get(0));
+            for (String word : words.subList(1, words.size())) {
+                scores.entrySet().removeIf(entry -> {
+                    int score = score(docs.get(entry.getKey()).values(), word);
+                    entry.setValue(entry.getValue() + score);
+                    return score == 0;
+                });
+            }
+
+            return scores.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed()
+                    .thenComparing(entry -> docs.get(entry.getKey()).values()[Field.USERNAME.ordinal()]))
+                .limit(limit)
+                .map(entry -> docs.get(entry.getKey()).user())
+                .toList();
+        }
+
+        /**
+         * Candidats d'un mot : correspondances exactes de tous les champs (jamais écartées par le
+         * plafond), puis préfixes et sous-chaînes jusqu'à maxCandidates
+         */
+        private Map<Integer, Integer> candidates(String word) {
+            Map<Integer, Integer> scores = new HashMap<>();
+
+            // Exact ×3
+            for (Field field : Field.values()) {
+                IntList exact = terms.get(field).get(word);
+                if (exact != null) {
+                    int score = field.weight * 3;
+                    exact.forEach(docId -> scores.merge(docId, score, Math::max));
+                }
+            }
+
+            // Préfixe ×2
+            scan:
+            for (Field field : Field.values()) {
+                for (Map.Entry<String, IntList> entry : terms.get(field).tailMap(word, false).entrySet()) {
+                    if (scores.size() >= maxCandidates) {
+                        break scan;
+                    }
+                    if (!entry.getKey().startsWith(word)) {
+                        break;
+                    }
+                    int score = field.weight * 2;
+                    entry.getValue().forEach(docId -> scores.merge(docId, score, Math::max));
+                }
+            }
+
+            // Sous-chaînes via trigrammes, vérifiées sur les valeurs : ×1
+            if (word.length() >= 3 && scores.size() < maxCandidates) {
+                substringCandidates(word).forEach(docId -> {
+                    if (scores.size() >= maxCandidates || scores.containsKey(docId)) {
+                        return;
+                    }
+                    String[] values = docs.get(docId).values();
+                    for (Field field : Field.values()) {
+                        if (values[field.ordinal()].contains(word)) {
+                            scores.merge(docId, field.weight, Math::max);
+                        }
+                    }
+                });
+            }
+            return scores;
+        }
+
+        /**
+         * Score d'un mot sur un document, mêmes règles que candidates() ; 0 si aucun champ ne correspond
+         */
+        private int score(String[] values, String word) {
+            int best = 0;
+            for (Field field : Field.values()) {
+                String value = values[field.ordinal()];
+                for (String term : termsOf(value)) {
+                    if (term.equals(word)) {
+                        best = Math.max(best, field.weight * 3);
+                    } else if (term.startsWith(word)) {
+                        best = Math.max(best, field.weight * 2);
+                    }
+                }
+                if (word.length() >= 3 && value.contains(word)) {
+                    best = Math.max(best, field.weight);
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Intersection des listes de trigrammes de la requête, de la plus courte à la plus longue
+         */
+        private IntList substringCandidates(String query) {
+            List<IntList> lists = new ArrayList<>();
+            for (int i = 0; i + 3 <= query.length(); i++) {
+                IntList list = trigrams.get(query.substring(i, i + 3));
+                if (list == null) {
+                    return new IntList();
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(IntList::size));
+
+            IntList candidates = new IntList();
+            IntList smallest = lists.get(0);
+            for (int i = 0; i < smallest.size(); i++) {
+                int docId = smallest.get(i);
+                boolean inAll = true;
+                for (int j = 1; j < lists.size() && inAll; j++) {
+                    inAll = lists.get(j).contains(docId);
+                }
+                if (inAll) {
+                    candidates.add(docId);
+                }
+            }
+            return candidates;
+        }
+    }
+
+    /**
+     * Valeur complète et ses segments alphanumériques (ex. email : "jean.dupont@acme.com",
+     * "jean", "dupont", "acme", "com")
+     */
+    private static Set<String> termsOf(String value) {
+        if (value.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> result = new HashSet<>();
+        result.add(value);
+        for (String token : SEPARATORS.split(value)) {
+            if (!token.isEmpty()) {
+                result.add(token);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Mots distincts de la requête, du plus long (le plus sélectif) au plus court
+     */
+    private static List<String> wordsOf(String query) {
+        return Arrays.stream(SEPARATORS.split(query))
+            .filter(word -> !word.isEmpty())
+            .distinct()
+            .sorted(Comparator.comparingInt(String::length).reversed())
+            .toList();
+    }
+
+    private static Set<String> trigramsOf(String[] values) {
+        Set<String> result = new HashSet<>();
+        for (String value : values) {
+            for (int i = 0; i + 3 <= value.length(); i++) {
+                result.add(value.substring(i, i + 3));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Liste d'entiers triée sans boxing (listes de postings)
+     */
+    private static final class IntList {
+
+        private int[] values = new int[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int get(int i) {
+            return values[i];
+        }
+
+        boolean contains(int value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        void add(int value) {
+            // Les docIds nouveaux sont croissants : ajout en fin dans le cas courant
+            if (size == 0 || values[size - 1] < value) {
+                grow();
+                values[size++] = value;
+                return;
+            }
+            int position = Arrays.binarySearch(values, 0, size, value);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            grow();
+            System.arraycopy(values, position, values, position + 1, size - position);
+            values[position] = value;
+            size++;
+        }
+
+        boolean remove(int value) {
+            int position = Arrays.binarySearch(values, 0, size, value);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(values, position + 1, values, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        void forEach(IntConsumer action) {
+            for (int i = 0; i < size; i++) {
+                action.accept(values[i]);
+            }
+        }
+
+        private void grow() {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+        }
+    }
+}
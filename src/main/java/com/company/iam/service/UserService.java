@@ -3,6 +3,12 @@ package com.company.iam.service;
 
 import com.company.iam.exception.IamException;
 import com.company.iam.model.dto.UserDTO;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import jakarta.ws.rs.core.Response;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,6 +19,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -23,59 +30,172 @@ public class UserService {
 
     private final Keycloak keycloakAdminClient;
     private final AuditService auditService;
+    private final RoleMembershipIndex roleMembershipIndex;
+    private final RoleCatalog roleCatalog;
+    private final UserSearchIndex userSearchIndex;
+    private final MeterRegistry meterRegistry;
 
     @Value("${keycloak.realm}")
     private String realm;
 
+    @Value("${iam.cache.users.maximum-size:10000}")
+    private long userCacheMaximumSize;
+
+    @Value("${iam.cache.users.ttl:PT30S}")
+    private Duration userCacheTtl;
+
+    @Value("${iam.cache.users.stale-while-revalidate:false}")
+    private boolean staleWhileRevalidate;
+
+    @Value("${iam.cache.users.max-stale:PT5M}")
+    private Duration userCacheMaxStale;
+
+    @Value("${iam.search.max-limit:100}")
+    private int searchMaxLimit;
+
+    private LoadingCache<String, ETagged<UserDTO>> userCache;
+    private DistributionSummary createRoundTrips;
+
+    /**
+     * Cache des UserDTO assemblés, avec leur ETag. En mode stale-while-revalidate, une entrée plus vieille
+     * que le TTL est servie telle quelle pendant son rechargement en arrière-plan.
+     */
+    @PostConstruct
+    void initUserCache() {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+            .maximumSize(userCacheMaximumSize)
+            .recordStats();
+        if (staleWhileRevalidate) {
+            builder.refreshAfterWrite(userCacheTtl).expireAfterWrite(userCacheMaxStale);
+        } else {
+            builder.expireAfterWrite(userCacheTtl);
+        }
+        userCache = builder.build(this::loadUser);
+        CaffeineCacheMetrics.monitor(meterRegistry, userCache, "users");
+
+        createRoundTrips = DistributionSummary.builder("iam.users.create.upstream.calls")
+            .description("Keycloak round trips per user creation")
+            .register(meterRegistry);
+    }
+
     /**
      * Créer un nouvel utilisateur dans Keycloak
      */
     public UserDTO createUser(UserDTO userDTO, String createdBy) {
+        UserDTO created = provisionUser(userDTO);
+
+        auditService.logAction("CREATE_USER", createdBy, null, "SUCCESS",
+            "Created user: " + userDTO.getUsername());
+
+        log.info("User created successfully: {}", userDTO.getUsername());
+        return created;
+    }
+
+    /**
+     * Provisionner un utilisateur en un minimum d'appels Keycloak : création avec le mot de passe
+     * inclus, puis un seul mapping de rôles résolus depuis le catalogue. Le DTO retourné est
+     * construit à partir des données déjà connues, sans relecture.
+     */
+    UserDTO provisionUser(UserDTO userDTO) {
         RealmResource realmResource = keycloakAdminClient.realm(realm);
+        int roundTrips = 0;
 
-        // Construire la représentation utilisateur
+        // Construire la représentation utilisateur, mot de passe inclus
         UserRepresentation user = buildUserRepresentation(userDTO);
+        if (userDTO.getPassword() != null) {
+            user.setCredentials(List.of(passwordCredential(userDTO.getPassword(), false)));
+        }
 
         // Créer l'utilisateur
-        Response response = realmResource.users().create(user);
+        String userId;
+        try (Response response = realmResource.users().create(user)) {
+            roundTrips++;
 
-        if (response.getStatus() == 409) {
-            throw new IamException("User already exists: " + userDTO.getUsername(), 
-                HttpStatus.CONFLICT);
-        }
+            if (response.getStatus() == 409) {
+                throw new IamException("User already exists: " + userDTO.getUsername(),
+                    HttpStatus.CONFLICT);
+            }
 
-        if (response.getStatus() != 201) {
-            throw new IamException("Failed to create user", HttpStatus.INTERNAL_SERVER_ERROR);
-        }
+            if (response.getStatus() != 201) {
+                throw new IamException("Failed to create user", HttpStatus.INTERNAL_SERVER_ERROR);
+            }
 
-        // Récupérer l'ID de l'utilisateur créé
-        String userId = extractUserId(response);
+            // Récupérer l'ID de l'utilisateur créé
+            userId = extractUserId(response);
+        }
 
         // Assigner les rôles
-        if (userDTO.getRoles() != null && !userDTO.getRoles().isEmpty()) {
-            assignRoles(userId, userDTO.getRoles());
+        List<RoleRepresentation> roles = userDTO.getRoles() != null
+            ? resolveRoles(userDTO.getRoles())
+            : List.of();
+        if (!roles.isEmpty()) {
+            realmResource.users().get(userId).roles().realmLevel().add(roles);
+            roundTrips++;
         }
 
-        // Définir le mot de passe
-        if (userDTO.getPassword() != null) {
-            setPassword(userId, userDTO.getPassword(), false);
-        }
+        // Rôles effectifs : rôles assignés + rôle par défaut du realm, composites développés
+        Set<String> directRoles = roles.stream()
+            .map(RoleRepresentation::getName)
+            .collect(Collectors.toCollection(HashSet::new));
+        roleCatalog.find(defaultRoleName()).ifPresent(role -> directRoles.add(role.getName()));
+
+        // Keycloak stocke username et email en minuscules : le DTO en cache doit lui être identique
+        UserDTO created = UserDTO.builder()
+            .id(userId)
+            .username(lowerCase(userDTO.getUsername()))
+            .email(lowerCase(userDTO.getEmail()))
+            .firstName(userDTO.getFirstName())
+            .lastName(userDTO.getLastName())
+            .enabled(userDTO.isEnabled())
+            .roles(List.copyOf(new TreeSet<>(roleCatalog.expand(directRoles))))
+            .build();
+        userCache.put(userId, tagged(created));
+        roleMembershipIndex.invalidate(userId);
+        userSearchIndex.upsert(created);
 
-        auditService.logAction("CREATE_USER", createdBy, null, "SUCCESS",
-            "Created user: " + userDTO.getUsername());
+        createRoundTrips.record(roundTrips);
+        log.debug("User {} provisioned in {} Keycloak round trips", userDTO.getUsername(), roundTrips);
+        return created;
+    }
 
-        log.info("User created successfully: {}", userDTO.getUsername());
-        return getUserById(userId);
+    /**
+     * Représentation complète (mot de passe et rôles realm inclus) pour un import partiel du realm.
+     * L'import partiel n'attribue pas le rôle par défaut du realm : il est ajouté ici pour que
+     * l'utilisateur importé ait les mêmes rôles que via provisionUser
+     */
+    UserRepresentation importRepresentation(UserDTO userDTO) {
+        UserRepresentation user = buildUserRepresentation(userDTO);
+        if (userDTO.getPassword() != null) {
+            user.setCredentials(List.of(passwordCredential(userDTO.getPassword(), false)));
+        }
+        Set<String> realmRoles = new LinkedHashSet<>();
+        if (userDTO.getRoles() != null) {
+            resolveRoles(userDTO.getRoles()).forEach(role -> realmRoles.add(role.getName()));
+        }
+        roleCatalog.find(defaultRoleName()).ifPresent(role -> realmRoles.add(role.getName()));
+        user.setRealmRoles(new ArrayList<>(realmRoles));
+        return user;
     }
 
     /**
      * Obtenir un utilisateur par ID
      */
     public UserDTO getUserById(String userId) {
+        return userCache.get(userId).value();
+    }
+
+    /**
+     * Obtenir un utilisateur et son ETag (servis depuis le cache, sans appel Keycloak sur un hit)
+     */
+    public ETagged<UserDTO> getTaggedUserById(String userId) {
+        return userCache.get(userId);
+    }
+
+    private ETagged<UserDTO> loadUser(String userId) {
         try {
             UserResource userResource = keycloakAdminClient.realm(realm).users().get(userId);
             UserRepresentation user = userResource.toRepresentation();
-            return mapToDTO(user, userResource);
+            return tagged(mapToDTO(user, fetchEffectiveRoles(userId)));
         } catch (Exception e) {
             throw new IamException("User not found: " + userId, HttpStatus.NOT_FOUND);
         }
@@ -83,18 +203,28 @@ public class UserService {
 
     /**
      * Lister tous les utilisateurs avec pagination
+     * (rôles résolus via l'index rôle → membres, Keycloak seulement pour les utilisateurs absents de l'index)
      */
     public List<UserDTO> getAllUsers(int page, int size) {
-        return keycloakAdminClient.realm(realm)
+        return toDTOs(keycloakAdminClient.realm(realm)
             .users()
-            .list(page * size, size)
-            .stream()
-            .map(user -> {
-                UserResource userResource = keycloakAdminClient.realm(realm)
-                    .users().get(user.getId());
-                return mapToDTO(user, userResource);
-            })
-            .collect(Collectors.toList());
+            .list(page * size, size));
+    }
+
+    /**
+     * Assembler les DTO d'un lot d'utilisateurs : rôles lus dans l'index, puis dans le cache
+     * des DTO, Keycloak seulement pour les utilisateurs inconnus des deux
+     */
+    List<UserDTO> toDTOs(List<UserRepresentation> users) {
+        List<UserDTO> dtos = new ArrayList<>(users.size());
+        for (UserRepresentation user : users) {
+            List<String> roles = roleMembershipIndex.effectiveRoles(user.getId())
+                .or(() -> Optional.ofNullable(userCache.getIfPresent(user.getId()))
+                    .map(cached -> cached.value().getRoles()))
+                .orElseGet(() -> fetchEffectiveRoles(user.getId()));
+            dtos.add(mapToDTO(user, roles));
+        }
+        return dtos;
     }
 
     /**
@@ -104,16 +234,32 @@ public class UserService {
         UserResource userResource = keycloakAdminClient.realm(realm).users().get(userId);
         UserRepresentation user = userResource.toRepresentation();
 
-        user.setFirstName(userDTO.getFirstName());
-        user.setLastName(userDTO.getLastName());
-        user.setEmail(userDTO.getEmail());
-        user.setEnabled(userDTO.isEnabled());
-
-        userResource.update(user);
+        // Keycloak stocke l'email en minuscules : comparer sous cette forme
+        String email = lowerCase(userDTO.getEmail());
+        boolean profileChanged = !Objects.equals(user.getFirstName(), userDTO.getFirstName())
+            || !Objects.equals(user.getLastName(), userDTO.getLastName())
+            || !Objects.equals(user.getEmail(), email)
+            || !Objects.equals(user.isEnabled(), userDTO.isEnabled());
+
+        if (profileChanged) {
+            user.setFirstName(userDTO.getFirstName());
+            user.setLastName(userDTO.getLastName());
+            user.setEmail(email);
+            user.setEnabled(userDTO.isEnabled());
+            userResource.update(user);
+            userSearchIndex.upsert(mapToDTO(user, List.of()));
+        }
 
+        boolean rolesChanged = false;
         if (userDTO.getRoles() != null) {
-            // Reset et reassigner les rôles
-            resetAndAssignRoles(userId, userDTO.getRoles());
+            // Réconciliation minimale avec les rôles demandés
+            rolesChanged = reconcileRoles(userResource, userDTO.getRoles());
+            if (rolesChanged) {
+                roleMembershipIndex.invalidate(userId);
+            }
+        }
+        if (profileChanged || rolesChanged) {
+            userCache.invalidate(userId);
         }
 
         auditService.logAction("UPDATE_USER", updatedBy, null, "SUCCESS",
@@ -126,10 +272,19 @@ public class UserService {
      * Supprimer un utilisateur
      */
     public void deleteUser(String userId, String deletedBy) {
+        removeUser(userId);
+        auditService.logAction("DELETE_USER", deletedBy, null, "SUCCESS",
+            "Deleted user: " + userId);
+    }
+
+    /**
+     * Suppression sans audit (l'appelant audite, éventuellement par lots)
+     */
+    void removeUser(String userId) {
         try {
             keycloakAdminClient.realm(realm).users().get(userId).remove();
-            auditService.logAction("DELETE_USER", deletedBy, null, "SUCCESS",
-                "Deleted user: " + userId);
+            userCache.invalidate(userId);
+            userSearchIndex.remove(userId);
         } catch (Exception e) {
             throw new IamException("Failed to delete user: " + userId, 
                 HttpStatus.INTERNAL_SERVER_ERROR);
@@ -140,14 +295,37 @@ public class UserService {
      * Activer/Désactiver un utilisateur
      */
     public void toggleUserStatus(String userId, boolean enabled, String modifiedBy) {
+        applyStatus(userId, enabled);
+
+        String action = enabled ? "ENABLE_USER" : "DISABLE_USER";
+        auditService.logAction(action, modifiedBy, null, "SUCCESS",
+            (enabled ? "Enabled" : "Disabled") + " user: " + userId);
+    }
+
+    /**
+     * Activation / désactivation sans audit (l'appelant audite, éventuellement par lots)
+     */
+    void applyStatus(String userId, boolean enabled) {
         UserResource userResource = keycloakAdminClient.realm(realm).users().get(userId);
         UserRepresentation user = userResource.toRepresentation();
         user.setEnabled(enabled);
         userResource.update(user);
+        userCache.invalidate(userId);
+        userSearchIndex.upsert(mapToDTO(user, List.of()));
+    }
 
-        String action = enabled ? "ENABLE_USER" : "DISABLE_USER";
-        auditService.logAction(action, modifiedBy, null, "SUCCESS",
-            (enabled ? "Enabled" : "Disabled") + " user: " + userId);
+    /**
+     * Remplacement des rôles realm sans audit (l'appelant audite, éventuellement par lots)
+     *
+     * @return true si des mappings ont été modifiés
+     */
+    boolean applyRoles(String userId, List<String> roles) {
+        boolean changed = reconcileRoles(keycloakAdminClient.realm(realm).users().get(userId), roles);
+        if (changed) {
+            roleMembershipIndex.invalidate(userId);
+            userCache.invalidate(userId);
+        }
+        return changed;
     }
 
     /**
@@ -160,15 +338,17 @@ public class UserService {
     }
 
     /**
-     * Rechercher des utilisateurs
+     * Rechercher des utilisateurs (index local, Keycloak tant que l'index n'est pas construit)
      */
-    public List<UserDTO> searchUsers(String query) {
-        return keycloakAdminClient.realm(realm)
-            .users()
-            .search(query)
-            .stream()
-            .map(user -> mapToDTO(user, null))
-            .collect(Collectors.toList());
+    public List<UserDTO> searchUsers(String query, int limit) {
+        int boundedLimit = Math.max(1, Math.min(limit, searchMaxLimit));
+        return userSearchIndex.search(query, boundedLimit)
+            .orElseGet(() -> keycloakAdminClient.realm(realm)
+                .users()
+                .search(query, 0, boundedLimit)
+                .stream()
+                .map(user -> mapToDTO(user, new ArrayList<>()))
+                .collect(Collectors.toList()));
     }
 
     // ─── Méthodes privées ────────────────────────────────────────
@@ -185,42 +365,72 @@ public class UserService {
     }
 
     private void setPassword(String userId, String password, boolean temporary) {
+        keycloakAdminClient.realm(realm).users().get(userId)
+            .resetPassword(passwordCredential(password, temporary));
+    }
+
+    private CredentialRepresentation passwordCredential(String password, boolean temporary) {
         CredentialRepresentation credential = new CredentialRepresentation();
         credential.setType(CredentialRepresentation.PASSWORD);
         credential.setValue(password);
         credential.setTemporary(temporary);
-        keycloakAdminClient.realm(realm).users().get(userId).resetPassword(credential);
-    }
-
-    private void assignRoles(String userId, List<String> roleNames) {
-        RolesResource rolesResource = keycloakAdminClient.realm(realm).roles();
-        List<RoleRepresentation> roles = roleNames.stream()
-            .map(roleName -> {
-                try {
-                    return rolesResource.get(roleName).toRepresentation();
-                } catch (Exception e) {
-                    log.warn("Role not found: {}", roleName);
-                    return null;
-                }
-            })
-            .filter(Objects::nonNull)
-            .collect(Collectors.toList());
+        return credential;
+    }
 
-        if (!roles.isEmpty()) {
-            keycloakAdminClient.realm(realm).users()
-                .get(userId).roles().realmLevel().add(roles);
+    /**
+     * Résolution des rôles via le catalogue en mémoire (aucun appel Keycloak)
+     */
+    private List<RoleRepresentation> resolveRoles(Collection<String> roleNames) {
+        List<RoleRepresentation> roles = new ArrayList<>(roleNames.size());
+        for (String roleName : roleNames) {
+            roleCatalog.find(roleName).ifPresentOrElse(roles::add,
+                () -> log.warn("Role not found: {}", roleName));
         }
+        return roles;
     }
 
-    private void resetAndAssignRoles(String userId, List<String> newRoles) {
-        // Supprimer tous les rôles existants
-        UserResource userResource = keycloakAdminClient.realm(realm).users().get(userId);
-        List<RoleRepresentation> currentRoles = userResource.roles().realmLevel().listEffective();
-        if (!currentRoles.isEmpty()) {
-            userResource.roles().realmLevel().remove(currentRoles);
+    /**
+     * Réconcilier les rôles realm d'un utilisateur avec la liste demandée.
+     * Le diff porte sur les mappings directs : les rôles hérités (composites, rôle par défaut)
+     * ne sont jamais retirés ni ré-ajoutés. Au plus deux appels d'écriture, aucun si rien ne change.
+     *
+     * @return true si des mappings ont été modifiés
+     */
+    private boolean reconcileRoles(UserResource userResource, List<String> requestedRoles) {
+        RoleScopeResource realmRoles = userResource.roles().realmLevel();
+        Set<String> requested = new HashSet<>(requestedRoles);
+        String defaultRole = defaultRoleName();
+
+        List<RoleRepresentation> toRemove = new ArrayList<>();
+        Set<String> kept = new HashSet<>();
+        for (RoleRepresentation role : realmRoles.listAll()) {
+            if (requested.contains(role.getName()) || role.getName().equals(defaultRole)) {
+                kept.add(role.getName());
+            } else {
+                toRemove.add(role);
+            }
         }
-        // Assigner les nouveaux rôles
-        assignRoles(userId, newRoles);
+
+        Set<String> implied = roleCatalog.expand(kept);
+        List<RoleRepresentation> toAdd = resolveRoles(requested.stream()
+            .filter(roleName -> !implied.contains(roleName))
+            .collect(Collectors.toList()));
+
+        if (!toRemove.isEmpty()) {
+            realmRoles.remove(toRemove);
+        }
+        if (!toAdd.isEmpty()) {
+            realmRoles.add(toAdd);
+        }
+        return !toRemove.isEmpty() || !toAdd.isEmpty();
+    }
+
+    private String defaultRoleName() {
+        return "default-roles-" + realm.toLowerCase(Locale.ROOT);
+    }
+
+    private static String lowerCase(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
     }
 
     private String extractUserId(Response response) {
@@ -228,19 +438,24 @@ public class UserService {
         return location.substring(location.lastIndexOf("/") + 1);
     }
 
-    private UserDTO mapToDTO(UserRepresentation user, UserResource userResource) {
-        List<String> roles = new ArrayList<>();
-        if (userResource != null) {
-            try {
-                roles = userResource.roles().realmLevel().listEffective()
-                    .stream()
-                    .map(RoleRepresentation::getName)
-                    .collect(Collectors.toList());
-            } catch (Exception e) {
-                log.warn("Could not fetch roles for user: {}", user.getId());
-            }
+    private List<String> fetchEffectiveRoles(String userId) {
+        try {
+            return keycloakAdminClient.realm(realm).users().get(userId).roles().realmLevel().listEffective()
+                .stream()
+                .map(RoleRepresentation::getName)
+                .collect(Collectors.toList());
+        } catch (Exception e) {
+            log.warn("Could not fetch roles for user: {}", userId);
+            return new ArrayList<>();
         }
+    }
+
+    private static ETagged<UserDTO> tagged(UserDTO user) {
+        return ETagged.of(user, user.getId(), user.getUsername(), user.getEmail(),
+            user.getFirstName(), user.getLastName(), user.isEnabled(), user.getRoles());
+    }
 
+    private UserDTO mapToDTO(UserRepresentation user, List<String> roles) {
         return UserDTO.builder()
             .id(user.getId())
             .username(user.getUsername())
@@ -0,0 +1,63 @@
+-- audit_logs partitionné par plage de temps (jour ou mois, cf. iam.audit.partitions.granularity).
+-- Les partitions à venir sont créées et les anciennes supprimées par AuditPartitionManager.
+-- Une table audit_logs existante (créée par Hibernate) est reprise dans une partition unique
+-- couvrant tout le passé, supprimée en bloc quand elle sort de la rétention.
+
+DO $$
+BEGIN
+    IF to_regclass('audit_logs') IS NOT NULL THEN
+        ALTER TABLE audit_logs RENAME TO audit_logs_legacy;
+    END IF;
+END $$;
+
+CREATE SEQUENCE audit_log_id_seq;
+
+CREATE TABLE audit_logs (
+    id          BIGINT       NOT NULL DEFAULT nextval('audit_log_id_seq'),
+    action      VARCHAR(255) NOT NULL,
+    user_id     VARCHAR(255),
+    username    VARCHAR(255),
+    ip_address  VARCHAR(255),
+    user_agent  VARCHAR(255),
+    resource    VARCHAR(255),
+    result      VARCHAR(255),
+    details     TEXT,
+    timestamp   TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+ALTER SEQUENCE audit_log_id_seq OWNED BY audit_logs.id;
+
+-- Filet de sécurité : lignes hors des partitions créées (doit rester vide)
+CREATE TABLE audit_logs_default PARTITION OF audit_logs DEFAULT;
+
+-- Index créés sur chaque partition
+-- countByUsernameAndActionAndResultAndTimestampAfter, findFailedLoginAttempts
+CREATE INDEX idx_audit_logs_username_action_result_ts ON audit_logs (username, action, result, timestamp);
+-- findByUsernameOrderByTimestampDesc
+CREATE INDEX idx_audit_logs_username_ts ON audit_logs (username, timestamp DESC);
+-- findByActionAndTimestampBetween
+CREATE INDEX idx_audit_logs_action_ts ON audit_logs (action, timestamp);
+-- findByActionAndResultAndTimestampAfterOrderByTimestampAsc (reconstruction du LoginAttemptGuard)
+CREATE INDEX idx_audit_logs_action_result_ts ON audit_logs (action, result, timestamp);
+
+DO $$
+DECLARE
+    unit           TEXT      := lower('${auditPartitionGranularity}');
+    current_period TIMESTAMP := date_trunc(unit, LOCALTIMESTAMP);
+BEGIN
+    -- Partition de la période courante (même nommage que AuditPartitionManager)
+    EXECUTE format('CREATE TABLE audit_logs_p%s PARTITION OF audit_logs FOR VALUES FROM (%L) TO (%L)',
+        to_char(current_period, CASE unit WHEN 'month' THEN 'YYYYMM' ELSE 'YYYYMMDD' END),
+        current_period, current_period + ('1 ' || unit)::INTERVAL);
+
+    IF to_regclass('audit_logs_legacy') IS NOT NULL THEN
+        EXECUTE format('CREATE TABLE audit_logs_before_%s PARTITION OF audit_logs FOR VALUES FROM (MINVALUE) TO (%L)',
+            to_char(current_period, 'YYYYMMDD'), current_period);
+        INSERT INTO audit_logs (id, action, user_id, username, ip_address, user_agent, resource, result, details, timestamp)
+        SELECT id, action, user_id, username, ip_address, user_agent, resource, result, details, timestamp
+        FROM audit_logs_legacy;
+        PERFORM setval('audit_log_id_seq', COALESCE((SELECT max(id) FROM audit_logs_legacy), 0) + 1, false);
+        DROP TABLE audit_logs_legacy;
+    END IF;
+END $$;
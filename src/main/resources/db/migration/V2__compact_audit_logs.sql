@@ -0,0 +1,99 @@
+-- Encodage compact de audit_logs (cf. AuditEncoding) : action / result en smallint, IP en inet,
+-- détail en modèle + valeur. Les tables de référence servent aux requêtes SQL manuelles
+-- (vue audit_logs_readable) ; les codes ne doivent jamais être réattribués.
+
+CREATE TABLE audit_actions (
+    code SMALLINT    PRIMARY KEY,
+    name VARCHAR(64) NOT NULL UNIQUE
+);
+
+INSERT INTO audit_actions (code, name) VALUES
+    (0, 'UNKNOWN'),
+    (1, 'LOGIN'),
+    (2, 'LOGOUT'),
+    (3, 'CREATE_USER'),
+    (4, 'UPDATE_USER'),
+    (5, 'DELETE_USER'),
+    (6, 'ENABLE_USER'),
+    (7, 'DISABLE_USER'),
+    (8, 'RESET_PASSWORD'),
+    (9, 'CREATE_ROLE'),
+    (10, 'DELETE_ROLE');
+
+CREATE TABLE audit_results (
+    code SMALLINT    PRIMARY KEY,
+    name VARCHAR(64) NOT NULL UNIQUE
+);
+
+INSERT INTO audit_results (code, name) VALUES
+    (0, 'UNKNOWN'),
+    (1, 'SUCCESS'),
+    (2, 'FAILURE');
+
+CREATE TABLE audit_detail_templates (
+    code SMALLINT     PRIMARY KEY,
+    text VARCHAR(255) NOT NULL
+);
+
+INSERT INTO audit_detail_templates (code, text) VALUES
+    (0, ''),
+    (1, 'Login successful'),
+    (2, 'Invalid credentials'),
+    (3, 'User logged out'),
+    (4, 'Created user: '),
+    (5, 'Updated user: '),
+    (6, 'Deleted user: '),
+    (7, 'Enabled user: '),
+    (8, 'Disabled user: '),
+    (9, 'Password reset for user: '),
+    (10, 'Created role: '),
+    (11, 'Deleted role: '),
+    (12, 'Updated roles of user: ');
+
+CREATE FUNCTION pg_temp.audit_action_code(name TEXT) RETURNS SMALLINT LANGUAGE sql STABLE AS $$
+    SELECT CASE WHEN name IS NULL THEN NULL
+                ELSE COALESCE((SELECT code FROM audit_actions a WHERE a.name = audit_action_code.name), 0) END
+$$;
+
+CREATE FUNCTION pg_temp.audit_result_code(name TEXT) RETURNS SMALLINT LANGUAGE sql STABLE AS $$
+    SELECT CASE WHEN name IS NULL THEN NULL
+                ELSE COALESCE((SELECT code FROM audit_results r WHERE r.name = audit_result_code.name), 0) END
+$$;
+
+CREATE FUNCTION pg_temp.audit_inet(address TEXT) RETURNS INET LANGUAGE plpgsql IMMUTABLE AS $$
+BEGIN
+    RETURN btrim(address)::INET;
+EXCEPTION WHEN OTHERS THEN
+    RETURN NULL;
+END
+$$;
+
+-- Détails existants : préfixe de modèle le plus long, sinon texte libre (modèle 0)
+ALTER TABLE audit_logs ADD COLUMN detail_template SMALLINT;
+
+UPDATE audit_logs l
+SET detail_template = t.code,
+    details = CASE WHEN t.code = 0 THEN l.details ELSE NULLIF(substr(l.details, length(t.text) + 1), '') END
+FROM audit_detail_templates t
+WHERE l.details IS NOT NULL
+  AND t.code = (SELECT c.code FROM audit_detail_templates c
+                WHERE starts_with(l.details, c.text)
+                ORDER BY length(c.text) DESC LIMIT 1);
+
+-- Une seule réécriture de la table (et reconstruction des index), qui élimine aussi les versions mortes de l'UPDATE
+ALTER TABLE audit_logs
+    ALTER COLUMN action TYPE SMALLINT USING pg_temp.audit_action_code(action),
+    ALTER COLUMN result TYPE SMALLINT USING pg_temp.audit_result_code(result),
+    ALTER COLUMN ip_address TYPE INET USING pg_temp.audit_inet(ip_address);
+
+ALTER TABLE audit_logs RENAME COLUMN details TO detail_value;
+
+CREATE VIEW audit_logs_readable AS
+SELECT l.id, a.name AS action, l.user_id, l.username, host(l.ip_address) AS ip_address, l.user_agent,
+       l.resource, r.name AS result,
+       CASE WHEN l.detail_template IS NULL THEN l.detail_value ELSE t.text || COALESCE(l.detail_value, '') END AS details,
+       l.timestamp
+FROM audit_logs l
+LEFT JOIN audit_actions a ON a.code = l.action
+LEFT JOIN audit_results r ON r.code = l.result
+LEFT JOIN audit_detail_templates t ON t.code = l.detail_template;
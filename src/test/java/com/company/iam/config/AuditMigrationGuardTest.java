@@ -0,0 +1,100 @@
+// config/AuditMigrationGuardTest.java
+package com.company.iam.config;
+
+import org.flywaydb.core.api.FlywayException;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.callback.Context;
+import org.flywaydb.core.api.callback.Event;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * V2 refusée au démarrage sur une table audit_logs volumineuse, sauf en mode hors ligne
+ */
+class AuditMigrationGuardTest {
+
+    private AuditMigrationGuard guard;
+    private Connection connection;
+    private PreparedStatement statement;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        guard = new AuditMigrationGuard();
+        ReflectionTestUtils.setField(guard, "maxOnlineRows", 1000L);
+        connection = mock(Connection.class);
+        statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+    }
+
+    @Test
+    void onlyRunsBeforeEachMigration() {
+        assertThat(guard.supports(Event.BEFORE_EACH_MIGRATE, null)).isTrue();
+        assertThat(guard.supports(Event.BEFORE_MIGRATE, null)).isFalse();
+        assertThat(guard.supports(Event.AFTER_EACH_MIGRATE, null)).isFalse();
+    }
+
+    @Test
+    void smallTableIsConvertedAtStartup() throws Exception {
+        rows(1000);
+
+        assertThatCode(() -> guard.handle(Event.BEFORE_EACH_MIGRATE, context("2"))).doesNotThrowAnyException();
+        verify(statement).setLong(1, 1001L);
+    }
+
+    @Test
+    void largeTableIsRefusedAtStartup() throws Exception {
+        rows(1001);
+
+        assertThatThrownBy(() -> guard.handle(Event.BEFORE_EACH_MIGRATE, context("2")))
+            .isInstanceOf(FlywayException.class)
+            .hasMessageContaining("iam.audit.compact.offline=true");
+    }
+
+    @Test
+    void offlineRunSkipsTheCount() throws Exception {
+        ReflectionTestUtils.setField(guard, "offline", true);
+
+        guard.handle(Event.BEFORE_EACH_MIGRATE, context("2"));
+
+        verify(connection, never()).prepareStatement(anyString());
+    }
+
+    @Test
+    void otherMigrationsAreNotChecked() throws Exception {
+        guard.handle(Event.BEFORE_EACH_MIGRATE, context("1"));
+        guard.handle(Event.BEFORE_EACH_MIGRATE, context("3"));
+
+        verify(connection, never()).prepareStatement(anyString());
+    }
+
+    private void rows(long count) throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getLong(1)).thenReturn(count);
+        when(statement.executeQuery()).thenReturn(resultSet);
+    }
+
+    private Context context(String version) {
+        MigrationInfo info = mock(MigrationInfo.class);
+        when(info.getVersion()).thenReturn(MigrationVersion.fromVersion(version));
+        Context context = mock(Context.class);
+        when(context.getMigrationInfo()).thenReturn(info);
+        when(context.getConnection()).thenReturn(connection);
+        return context;
+    }
+}
@@ -0,0 +1,119 @@
+// config/MethodSecurityConfigTest.java
+package com.company.iam.config;
+
+import com.company.iam.security.CompiledPreAuthorizeManager;
+import com.company.iam.security.RoleBitRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.Advisor;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.prepost.PostAuthorize;
+import org.springframework.security.access.prepost.PostFilter;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.access.prepost.PreFilter;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authorization.method.AuthorizationInterceptorsOrder;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @PreAuthorize par CompiledPreAuthorizeManager seul, @PostAuthorize / @PreFilter / @PostFilter toujours appliqués
+ */
+class MethodSecurityConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+        .withUserConfiguration(MethodSecurityConfig.class)
+        .withBean(RoleBitRegistry.class)
+        .withBean(CompiledPreAuthorizeManager.class)
+        .withBean(Documents.class);
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void springPreAuthorizeAdvisorIsReplacedByTheCompiledOne() {
+        contextRunner.run(context -> {
+            Map<String, Advisor> preAuthorize = new HashMap<>();
+            context.getBeansOfType(Advisor.class).forEach((name, advisor) -> {
+                if (advisor instanceof AuthorizationManagerBeforeMethodInterceptor interceptor
+                        && interceptor.getOrder() == AuthorizationInterceptorsOrder.PRE_AUTHORIZE.getOrder()) {
+                    preAuthorize.put(name, advisor);
+                }
+            });
+            assertThat(preAuthorize).containsOnlyKeys("preAuthorizeAdvisor");
+        });
+    }
+
+    @Test
+    void preAuthorizeIsEnforced() {
+        contextRunner.run(context -> {
+            Documents documents = context.getBean(Documents.class);
+
+            authenticate("alice", "ROLE_USER");
+            assertThatThrownBy(documents::adminOnly).isInstanceOf(AccessDeniedException.class);
+
+            authenticate("root", "ROLE_ADMIN");
+            assertThat(documents.adminOnly()).isEqualTo("granted");
+        });
+    }
+
+    @Test
+    void postAuthorizeAndFiltersStayEnabled() {
+        contextRunner.run(context -> {
+            Documents documents = context.getBean(Documents.class);
+            authenticate("alice", "ROLE_USER");
+
+            assertThat(documents.ownedBy("alice")).isEqualTo("alice");
+            assertThatThrownBy(() -> documents.ownedBy("bob")).isInstanceOf(AccessDeniedException.class);
+            assertThat(documents.keep(new ArrayList<>(List.of("a", "secret", "b")))).containsExactly("a", "b");
+            assertThat(documents.visible()).containsExactly("a", "b");
+        });
+    }
+
+    @Test
+    void missingSpringAdvisorFailsAtStartup() {
+        assertThatThrownBy(() -> MethodSecurityConfig.springPreAuthorizeRemover()
+            .postProcessBeanDefinitionRegistry(new DefaultListableBeanFactory()))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining(MethodSecurityConfig.SPRING_PRE_AUTHORIZE_ADVISOR);
+    }
+
+    private static void authenticate(String name, String... authorities) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(name, null, authorities));
+    }
+
+    static class Documents {
+
+        @PreAuthorize("hasRole('ADMIN')")
+        public String adminOnly() {
+            return "granted";
+        }
+
+        @PostAuthorize("returnObject == authentication.name")
+        public String ownedBy(String owner) {
+            return owner;
+        }
+
+        @PreFilter("filterObject != 'secret'")
+        public List<String> keep(List<String> values) {
+            return values;
+        }
+
+        @PostFilter("filterObject != 'secret'")
+        public List<String> visible() {
+            return new ArrayList<>(List.of("a", "secret", "b"));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+// config/RestClientConfigTest.java
+package com.company.iam.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+
+/**
+ * Transport vers Keycloak : pool Apache en HTTP/1.1, client JDK borné et instrumenté en HTTP/2
+ */
+class RestClientConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+        .withInitializer(context -> context.getBeanFactory()
+            .setConversionService(ApplicationConversionService.getSharedInstance()))
+        .withUserConfiguration(RestClientConfig.class)
+        .withBean(MeterRegistry.class, SimpleMeterRegistry::new);
+
+    @Test
+    void http1UsesThePooledApacheClient() {
+        contextRunner.run(context -> {
+            assertThat(context).hasSingleBean(PoolingHttpClientConnectionManager.class);
+            assertThat(context).hasSingleBean(RestTemplate.class);
+            assertThat(context.getBean(MeterRegistry.class).find("keycloak.client.http2.requests.max").gauge())
+                .isNull();
+        });
+    }
+
+    @Test
+    void http2SkipsTheApachePoolAndPublishesItsOwnBound() {
+        contextRunner
+            .withPropertyValues("keycloak.client.http2=true", "keycloak.client.pool.max-per-route=8")
+            .run(context -> {
+                assertThat(context).doesNotHaveBean(PoolingHttpClientConnectionManager.class);
+                assertThat(context).hasSingleBean(RestTemplate.class);
+                MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+                assertThat(meterRegistry.get("keycloak.client.http2.requests.max").gauge().value()).isEqualTo(8);
+                assertThat(meterRegistry.get("keycloak.client.http2.requests.active").gauge().value()).isZero();
+            });
+    }
+
+    @Test
+    void http2RequestsBeyondTheBoundTimeOutWaitingForASlot() {
+        contextRunner
+            .withPropertyValues("keycloak.client.http2=true", "keycloak.client.pool.max-per-route=1",
+                "keycloak.client.pool.acquire-timeout=100ms")
+            .run(context -> {
+                RestTemplate restTemplate = context.getBean(RestTemplate.class);
+                MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+                CountDownLatch inFlight = new CountDownLatch(1);
+                CountDownLatch release = new CountDownLatch(1);
+                server.expect(method(HttpMethod.POST)).andRespond(request -> {
+                    inFlight.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return withStatus(HttpStatus.OK).createResponse(request);
+                });
+
+                CompletableFuture<Void> first = CompletableFuture.runAsync(() ->
+                    restTemplate.postForEntity("http://keycloak/token", "a", Void.class));
+                assertThat(inFlight.await(5, TimeUnit.SECONDS)).isTrue();
+
+                assertThatThrownBy(() -> restTemplate.postForEntity("http://keycloak/token", "b", Void.class))
+                    .isInstanceOf(ResourceAccessException.class)
+                    .hasMessageContaining("request slot");
+                release.countDown();
+                first.get(5, TimeUnit.SECONDS);
+                assertThat(context.getBean(MeterRegistry.class)
+                    .get("keycloak.client.http2.acquire.timeouts").counter().count()).isEqualTo(1);
+            });
+    }
+}
@@ -0,0 +1,146 @@
+// repository/AuditLogVolumeBenchmark.java
+package com.company.iam.repository;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Requêtes d'audit à volume réel : audit_logs partitionné (migrations Flyway du projet) comparé à la même
+ * table non partitionnée, mesurée sans index puis après création des mêmes index (une seule copie des
+ * lignes, pour tenir sur disque à 100M). Tout est créé dans un schéma dédié, supprimé puis recréé à
+ * chaque lancement ; données et requêtes dans src/test/resources/bench.
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test-classpath.txt
+ * java -cp target/test-classes:target/classes:$(cat target/test-classpath.txt) \
+ *     com.company.iam.repository.AuditLogVolumeBenchmark jdbc:postgresql://localhost:5432/iam_db postgres postgres 10000000 [30]
+ * </pre>
+ */
+public class AuditLogVolumeBenchmark {
+
+    private static final String SCHEMA = "audit_bench";
+    private static final long CHUNK = 1_000_000;
+    private static final int RUNS = 5;
+    private static final String FLAT = "audit_logs_flat";
+    private static final String PARTITIONED = "audit_logs";
+
+    public static void main(String[] args) throws Exception {
+        String url = args[0];
+        long rows = Long.parseLong(args[3]);
+        int days = args.length > 4 ? Integer.parseInt(args[4]) : 30;
+        // Une seule connexion : les temps mesurés n'incluent pas l'ouverture de connexion
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(url, args[1], args[2], true);
+        dataSource.setSchema(SCHEMA);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+        jdbc.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        Flyway.configure()
+            .dataSource(dataSource)
+            .schemas(SCHEMA)
+            .placeholders(Map.of("auditPartitionGranularity", "DAY"))
+            .load()
+            .migrate();
+
+        long start = System.nanoTime();
+        DateTimeFormatter suffix = DateTimeFormatter.ofPattern("yyyyMMdd");
+        for (int day = 1; day <= days + 1; day++) {
+            LocalDate from = LocalDate.now().minusDays(day);
+            jdbc.execute(String.format(
+                "CREATE TABLE IF NOT EXISTS audit_logs_p%s PARTITION OF audit_logs FOR VALUES FROM ('%s') TO ('%s')",
+                suffix.format(from), from, from.plusDays(1)));
+        }
+        String generate = resource("bench/audit-logs-generate.sql");
+        for (long first = 1; first <= rows; first += CHUNK) {
+            long last = Math.min(first + CHUNK - 1, rows);
+            jdbc.execute(generate
+                .replace("${first}", Long.toString(first))
+                .replace("${last}", Long.toString(last))
+                .replace("${rows}", Long.toString(rows))
+                .replace("${days}", Integer.toString(days)));
+            System.out.printf("generated %,d / %,d rows (%d s)%n", last, rows, elapsedSeconds(start));
+        }
+        ScriptUtils.executeSqlScript(dataSource.getConnection(), new ClassPathResource("bench/audit-logs-baselines.sql"));
+        jdbc.execute("VACUUM ANALYZE " + FLAT);
+        jdbc.execute("VACUUM ANALYZE " + PARTITIONED);
+        System.out.printf("loaded %,d rows over %d days in %d s%n%n", rows, days, elapsedSeconds(start));
+
+        List<String[]> queries = queries();
+        Map<String, double[]> times = new LinkedHashMap<>();
+        Map<String, String> sizes = new LinkedHashMap<>();
+        times.put("flat, no index", measure(jdbc, queries, FLAT));
+        sizes.put("flat, no index", size(jdbc, FLAT));
+        ScriptUtils.executeSqlScript(dataSource.getConnection(), new ClassPathResource("bench/audit-logs-flat-indexes.sql"));
+        jdbc.execute("VACUUM ANALYZE " + FLAT);
+        times.put("flat, same indexes", measure(jdbc, queries, FLAT));
+        sizes.put("flat, same indexes", size(jdbc, FLAT));
+        times.put("partitioned", measure(jdbc, queries, PARTITIONED));
+        sizes.put("partitioned", size(jdbc, PARTITIONED));
+
+        System.out.printf("%-36s", "");
+        times.keySet().forEach(name -> System.out.printf("%20s", name));
+        System.out.println();
+        for (int i = 0; i < queries.size(); i++) {
+            System.out.printf("%-36s", queries.get(i)[0]);
+            for (double[] column : times.values()) {
+                System.out.printf("%17.1f ms", column[i]);
+            }
+            System.out.println();
+        }
+        System.out.printf("%-36s", "Size (heap + indexes)");
+        sizes.values().forEach(size -> System.out.printf("%20s", size));
+        System.out.println();
+    }
+
+    private static double[] measure(JdbcTemplate jdbc, List<String[]> queries, String table) {
+        return queries.stream().mapToDouble(query -> bestOf(jdbc, query[1].replace("{table}", table))).toArray();
+    }
+
+    private static String size(JdbcTemplate jdbc, String table) {
+        return jdbc.queryForObject(
+            "SELECT pg_size_pretty(COALESCE(sum(pg_total_relation_size(inhrelid)), pg_total_relation_size(?::regclass))) "
+                + "FROM pg_inherits WHERE inhparent = ?::regclass", String.class, table, table);
+    }
+
+    private static double bestOf(JdbcTemplate jdbc, String sql) {
+        jdbc.queryForList(sql);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            jdbc.queryForList(sql);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1e6;
+    }
+
+    /**
+     * Paires (nom, requête) : chaque requête est précédée d'une ligne « -- name: »
+     */
+    private static List<String[]> queries() throws IOException {
+        return List.of(resource("bench/audit-logs-queries.sql").split("(?m)^-- name: ")).stream()
+            .skip(1)
+            .map(block -> {
+                int newline = block.indexOf('\n');
+                String sql = block.substring(newline + 1).trim();
+                return new String[]{block.substring(0, newline).trim(), sql.substring(0, sql.lastIndexOf(';'))};
+            })
+            .toList();
+    }
+
+    private static String resource(String path) throws IOException {
+        return new ClassPathResource(path).getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    private static long elapsedSeconds(long start) {
+        return (System.nanoTime() - start) / 1_000_000_000;
+    }
+}
@@ -0,0 +1,110 @@
+// security/CompiledPreAuthorizeManagerBenchmark.java
+package com.company.iam.security;
+
+import com.company.iam.controller.UserController;
+import org.aopalliance.intercept.MethodInvocation;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.objenesis.SpringObjenesis;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.util.SimpleMethodInvocation;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût d'une décision @PreAuthorize, SpEL (PreAuthorizeAuthorizationManager) ou masque compilé, sur
+ * UserController.getUserById : gestionnaire accordé par le 2e terme, utilisateur par #userId (3e terme).
+ * Lancement, avec le profileur GC :
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test-classpath.txt
+ * java -cp target/test-classes:target/classes:$(cat target/test-classpath.txt) \
+ *     com.company.iam.security.CompiledPreAuthorizeManagerBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompiledPreAuthorizeManagerBenchmark {
+
+    private PreAuthorizeAuthorizationManager spel;
+    private CompiledPreAuthorizeManager compiled;
+    private Authentication manager;
+    private Authentication self;
+    private MethodInvocation invocation;
+
+    @Setup
+    public void setUp() throws Exception {
+        GenericApplicationContext context = new GenericApplicationContext();
+        RootBeanDefinition definition = new RootBeanDefinition(UserController.class);
+        definition.setLazyInit(true);
+        context.registerBeanDefinition("userController", definition);
+        context.refresh();
+
+        RoleBitRegistry registry = new RoleBitRegistry();
+        compiled = new CompiledPreAuthorizeManager(registry, context,
+            context.getBeanProvider(MethodSecurityExpressionHandler.class));
+        compiled.afterSingletonsInstantiated();
+        spel = new PreAuthorizeAuthorizationManager();
+
+        manager = token("mgr", registry, "ROLE_USER_MANAGER", "ROLE_offline_access", "SCOPE_profile");
+        self = token("8f14e45f-ceea-467f-a8f5-2b7c0c1d9e11", registry, "ROLE_USER", "SCOPE_profile");
+        invocation = new SimpleMethodInvocation(new SpringObjenesis().newInstance(UserController.class),
+            UserController.class.getMethod("getUserById", String.class, WebRequest.class),
+            "8f14e45f-ceea-467f-a8f5-2b7c0c1d9e11", null);
+    }
+
+    @Benchmark
+    public AuthorizationDecision spelRole() {
+        return spel.check(() -> manager, invocation);
+    }
+
+    @Benchmark
+    public AuthorizationDecision compiledRole() {
+        return compiled.check(() -> manager, invocation);
+    }
+
+    @Benchmark
+    public AuthorizationDecision spelPrincipal() {
+        return spel.check(() -> self, invocation);
+    }
+
+    @Benchmark
+    public AuthorizationDecision compiledPrincipal() {
+        return compiled.check(() -> self, invocation);
+    }
+
+    private static Authentication token(String name, RoleBitRegistry registry, String... authorityNames) {
+        List<GrantedAuthority> authorities = AuthorityUtils.createAuthorityList(authorityNames);
+        Jwt jwt = Jwt.withTokenValue("eyJhbGciOiJSUzI1NiJ9.benchmark.signature")
+            .header("alg", "RS256")
+            .subject(name)
+            .issuedAt(Instant.now())
+            .expiresAt(Instant.now().plusSeconds(3600))
+            .build();
+        return new RoleMaskAuthenticationToken(jwt, authorities, name, registry.maskOf(authorities));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(CompiledPreAuthorizeManagerBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
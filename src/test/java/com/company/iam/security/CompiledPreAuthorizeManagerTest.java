@@ -0,0 +1,194 @@
+// security/CompiledPreAuthorizeManagerTest.java
+package com.company.iam.security;
+
+import com.company.iam.controller.RoleController;
+import com.company.iam.controller.UserController;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.objenesis.SpringObjenesis;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Même décision que PreAuthorizeAuthorizationManager (SpEL) pour chaque @PreAuthorize des contrôleurs
+ * et pour les formes compilées ou non (préfixe ROLE_, and / not / parenthèses, registre de plus de 64 authorities)
+ */
+class CompiledPreAuthorizeManagerTest {
+
+    private static final List<List<String>> AUTHORITIES = List.of(
+        List.of(),
+        List.of("ROLE_ADMIN"),
+        List.of("ROLE_USER_MANAGER"),
+        List.of("ADMIN"),
+        List.of("ROLE_AUDITOR"),
+        List.of("ROLE_ADMIN", "ROLE_AUDITOR"),
+        List.of("ROLE_USER_MANAGER", "SCOPE_users"),
+        List.of("SCOPE_users"));
+
+    private static final PreAuthorizeAuthorizationManager spel = new PreAuthorizeAuthorizationManager();
+
+    private static RoleBitRegistry registry;
+    private static CompiledPreAuthorizeManager compiled;
+    private static RoleBitRegistry saturatedRegistry;
+    private static CompiledPreAuthorizeManager saturated;
+
+    @BeforeAll
+    static void compileRules() {
+        // Définitions seules (lazy) : les règles sont lues sur les types, les contrôleurs ne sont pas instanciés
+        GenericApplicationContext context = new GenericApplicationContext();
+        for (Class<?> type : List.of(UserController.class, RoleController.class, Expressions.class)) {
+            RootBeanDefinition definition = new RootBeanDefinition(type);
+            definition.setLazyInit(true);
+            context.registerBeanDefinition(type.getSimpleName(), definition);
+        }
+        context.refresh();
+        ObjectProvider<MethodSecurityExpressionHandler> expressionHandler =
+            context.getBeanProvider(MethodSecurityExpressionHandler.class);
+
+        registry = new RoleBitRegistry();
+        compiled = new CompiledPreAuthorizeManager(registry, context, expressionHandler);
+        compiled.afterSingletonsInstantiated();
+
+        // Registre déjà plein : aucune règle compilable, tout passe par SpEL
+        saturatedRegistry = new RoleBitRegistry();
+        for (int i = 0; i < RoleBitRegistry.MAX_BITS; i++) {
+            saturatedRegistry.register("ROLE_GROUP_" + i);
+        }
+        saturated = new CompiledPreAuthorizeManager(saturatedRegistry, context, expressionHandler);
+        saturated.afterSingletonsInstantiated();
+    }
+
+    @Test
+    void controllerRulesAreCompiledUnlessTheRegistryIsFull() {
+        assertThat(registry.bitOf("ROLE_ADMIN")).isNotNegative();
+        assertThat(registry.bitOf("ROLE_USER_MANAGER")).isNotNegative();
+        assertThat(saturatedRegistry.bitOf("ROLE_ADMIN")).isEqualTo(-1);
+    }
+
+    @ParameterizedTest(name = "{0} / {1}")
+    @MethodSource("invocations")
+    void sameDecisionAsSpel(String method, String caller, Authentication authentication, MethodInvocation invocation) {
+        boolean expected = granted(spel.check(() -> authentication, invocation));
+
+        assertThat(granted(compiled.check(() -> authentication, invocation))).isEqualTo(expected);
+        assertThat(granted(saturated.check(() -> authentication, invocation))).isEqualTo(expected);
+    }
+
+    static Stream<Arguments> invocations() {
+        List<Arguments> invocations = new ArrayList<>();
+        SpringObjenesis objenesis = new SpringObjenesis();
+        for (Class<?> type : List.of(UserController.class, RoleController.class, Expressions.class)) {
+            // Cible sans dépendances : seules sa classe et ses annotations servent
+            Object target = objenesis.newInstance(type);
+            for (Method method : type.getDeclaredMethods()) {
+                if (AnnotatedElementUtils.findMergedAnnotation(method, PreAuthorize.class) == null) {
+                    continue;
+                }
+                for (Authentication authentication : authentications()) {
+                    // Arguments String = l'appelant ou un autre utilisateur (#userId == authentication.name)
+                    for (String argument : List.of(authentication.getName(), "someone-else")) {
+                        Object[] arguments = Arrays.stream(method.getParameterTypes())
+                            .map(parameter -> parameter == String.class ? argument : null)
+                            .toArray();
+                        invocations.add(Arguments.of(
+                            type.getSimpleName() + "." + method.getName() + "(" + argument + ")",
+                            authentication.getClass().getSimpleName() + " " + authentication.getAuthorities(),
+                            authentication,
+                            new SimpleMethodInvocation(target, method, arguments)));
+                    }
+                }
+            }
+        }
+        return invocations.stream();
+    }
+
+    private static List<Authentication> authentications() {
+        List<Authentication> authentications = new ArrayList<>();
+        for (List<String> names : AUTHORITIES) {
+            List<GrantedAuthority> authorities = AuthorityUtils.createAuthorityList(names);
+            authentications.add(new TestingAuthenticationToken("alice", null, authorities));
+            authentications.add(new RoleMaskAuthenticationToken(jwt("alice"), authorities, "alice",
+                registry.maskOf(authorities)));
+        }
+        authentications.add(new AnonymousAuthenticationToken("key", "anonymousUser",
+            AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+        return authentications;
+    }
+
+    private static Jwt jwt(String subject) {
+        return Jwt.withTokenValue("token")
+            .header("alg", "RS256")
+            .subject(subject)
+            .issuedAt(Instant.now())
+            .expiresAt(Instant.now().plusSeconds(300))
+            .build();
+    }
+
+    private static boolean granted(AuthorizationDecision decision) {
+        return decision != null && decision.isGranted();
+    }
+
+    /**
+     * Formes absentes des contrôleurs : compilées (préfixe ROLE_, hasAny*, principal à droite) ou en repli SpEL
+     */
+    static class Expressions {
+
+        @PreAuthorize("hasRole('ROLE_ADMIN')")
+        public void prefixedRole() {
+        }
+
+        @PreAuthorize("hasAnyRole('ADMIN', 'ROLE_AUDITOR')")
+        public void anyRole() {
+        }
+
+        @PreAuthorize("hasAuthority('ADMIN')")
+        public void unprefixedAuthority() {
+        }
+
+        @PreAuthorize("hasAnyAuthority('ROLE_USER_MANAGER', 'SCOPE_users')")
+        public void anyAuthority() {
+        }
+
+        @PreAuthorize("authentication.name == #userId or hasRole('AUDITOR')")
+        public void principalFirst(String userId) {
+        }
+
+        @PreAuthorize("hasRole('ADMIN') and not hasRole('AUDITOR')")
+        public void andNot() {
+        }
+
+        @PreAuthorize("(hasRole('ADMIN') or hasRole('AUDITOR')) and #userId == authentication.name")
+        public void parentheses(String userId) {
+        }
+
+        @PreAuthorize("not hasAnyRole('ADMIN', 'USER_MANAGER')")
+        public void not() {
+        }
+    }
+}
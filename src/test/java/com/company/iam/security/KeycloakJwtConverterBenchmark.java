@@ -0,0 +1,89 @@
+// security/KeycloakJwtConverterBenchmark.java
+package com.company.iam.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocation par conversion JWT → authentification, cache d'authorities froid (chaque appel recalcule)
+ * ou chaud (token déjà vu). Lancement, avec le profileur GC :
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test-classpath.txt
+ * java -cp target/test-classes:target/classes:$(cat target/test-classpath.txt) \
+ *     com.company.iam.security.KeycloakJwtConverterBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeycloakJwtConverterBenchmark {
+
+    private KeycloakJwtConverter coldConverter;
+    private KeycloakJwtConverter warmConverter;
+    private Jwt jwt;
+
+    @Setup
+    public void setUp() {
+        Instant now = Instant.now();
+        jwt = Jwt.withTokenValue("eyJhbGciOiJSUzI1NiJ9.benchmark.signature")
+            .header("alg", "RS256")
+            .jti("5d0c8f8e-3b2a-4f7e-9a61-0f4c2e7b9d13")
+            .subject("8f14e45f-ceea-467f-a8f5-2b7c0c1d9e11")
+            .claim("preferred_username", "jdoe")
+            .claim("scope", "openid profile email")
+            .claim("realm_access", Map.of("roles",
+                List.of("user", "admin", "auditor", "offline_access", "uma_authorization")))
+            .claim("resource_access", Map.of(
+                "iam-service", Map.of("roles", List.of("user-read", "user-write", "role-read")),
+                "account", Map.of("roles", List.of("manage-account", "view-profile"))))
+            .issuedAt(now)
+            .expiresAt(now.plus(Duration.ofDays(1)))
+            .build();
+
+        // TTL nul : l'entrée expire aussitôt créée, chaque conversion recalcule les authorities
+        coldConverter = converter(Duration.ZERO);
+        warmConverter = converter(Duration.ofMinutes(5));
+        warmConverter.convert(jwt);
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken coldCache() {
+        return coldConverter.convert(jwt);
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken warmCache() {
+        return warmConverter.convert(jwt);
+    }
+
+    private static KeycloakJwtConverter converter(Duration maxTtl) {
+        KeycloakJwtConverter converter = new KeycloakJwtConverter(new SimpleMeterRegistry(), new RoleBitRegistry());
+        ReflectionTestUtils.setField(converter, "maximumSize", 100_000L);
+        ReflectionTestUtils.setField(converter, "maxTtl", maxTtl);
+        converter.init();
+        return converter;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(KeycloakJwtConverterBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
@@ -0,0 +1,94 @@
+// security/LoginAttemptGuardTest.java
+package com.company.iam.security;
+
+import com.company.iam.exception.IamException;
+import com.company.iam.model.entity.AuditEncoding;
+import com.company.iam.model.entity.AuditLog;
+import com.company.iam.repository.AuditLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Fenêtres d'échecs : clés IP identiques en direct et relues depuis audit_logs (host(inet)),
+ * nombre de clés suivies borné
+ */
+class LoginAttemptGuardTest {
+
+    private AuditLogRepository auditLogRepository;
+    private LoginAttemptGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        auditLogRepository = mock(AuditLogRepository.class);
+        guard = new LoginAttemptGuard(auditLogRepository);
+        ReflectionTestUtils.setField(guard, "window", Duration.ofMinutes(15));
+        ReflectionTestUtils.setField(guard, "maxFailuresPerUser", 5);
+        ReflectionTestUtils.setField(guard, "maxFailuresPerIp", 3);
+        ReflectionTestUtils.setField(guard, "maximumKeys", 100L);
+        guard.init();
+    }
+
+    @Test
+    void rebuiltIpv6FailuresCountWithLiveOnes() {
+        // Tomcat donne la forme longue, PostgreSQL relit la forme compressée
+        when(auditLogRepository.findByActionAndResultAndTimestampAfterOrderByTimestampAsc(
+            eq("LOGIN"), eq("FAILURE"), any())).thenReturn(List.of(failure("alice", "::1"), failure("bob", "::1")));
+        guard.rebuild();
+
+        guard.recordFailure("carol", "0:0:0:0:0:0:0:1");
+
+        assertThatThrownBy(() -> guard.checkAllowed("dave", "0:0:0:0:0:0:0:1"))
+            .isInstanceOfSatisfying(IamException.class,
+                e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+        assertThatThrownBy(() -> guard.checkAllowed("dave", "::1")).isInstanceOf(IamException.class);
+    }
+
+    @Test
+    void trackedKeysStayBoundedUnderRandomUsernames() {
+        for (int i = 0; i < 10_000; i++) {
+            guard.recordFailure("random-" + i, "203.0.113." + i % 50);
+        }
+
+        Map<?, ?> userFailures = (Map<?, ?>) ReflectionTestUtils.getField(guard, "userFailures");
+        await().atMost(Duration.ofSeconds(5)).until(() -> userFailures.size() <= 100);
+        // Les IP, peu nombreuses et répétées, restent suivies et bloquées
+        assertThatThrownBy(() -> guard.checkAllowed("someone", "203.0.113.7")).isInstanceOf(IamException.class);
+    }
+
+    @Test
+    void encodedIpv6MatchesPostgresHostText() {
+        assertThat(AuditEncoding.ipAddress("0:0:0:0:0:0:0:1")).isEqualTo("::1");
+        assertThat(AuditEncoding.ipAddress("0:0:0:0:0:0:0:0")).isEqualTo("::");
+        assertThat(AuditEncoding.ipAddress("FE80:0:0:0:0:0:0:1")).isEqualTo("fe80::1");
+        assertThat(AuditEncoding.ipAddress("2001:db8:0:0:1:0:0:1")).isEqualTo("2001:db8::1:0:0:1");
+        assertThat(AuditEncoding.ipAddress("2001:db8:0:1:0:1:0:1")).isEqualTo("2001:db8:0:1:0:1:0:1");
+        assertThat(AuditEncoding.ipAddress("1:0:0:0:0:0:0:0")).isEqualTo("1::");
+        assertThat(AuditEncoding.ipAddress("::1.2.3.4")).isEqualTo("::1.2.3.4");
+        assertThat(AuditEncoding.ipAddress("::ffff:1.2.3.4")).isEqualTo("1.2.3.4");
+    }
+
+    private static AuditLog failure(String username, String ipAddress) {
+        return AuditLog.builder()
+            .action("LOGIN")
+            .username(username)
+            .ipAddress(ipAddress)
+            .result("FAILURE")
+            .timestamp(LocalDateTime.now().minusMinutes(1))
+            .build();
+    }
+}
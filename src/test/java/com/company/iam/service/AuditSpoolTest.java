@@ -0,0 +1,278 @@
+// service/AuditSpoolTest.java
+package com.company.iam.service;
+
+import com.company.iam.model.entity.AuditLog;
+import com.company.iam.repository.AuditLogBatchInserter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Reprise du journal d'audit : point de reprise, enregistrements tronqués ou corrompus,
+ * base indisponible, événements refusés et dernier rejeu à l'arrêt
+ */
+class AuditSpoolTest {
+
+    @TempDir
+    Path directory;
+
+    private final List<String> inserted = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+    private final List<AuditSpool> started = new ArrayList<>();
+    private SimpleMeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        failure.set(null);
+        for (AuditSpool spool : started) {
+            stopQuietly(spool);
+        }
+    }
+
+    @Test
+    void restartResumesFromCheckpointWithoutReplayingTwice() throws Exception {
+        AuditSpool spool = start(Duration.ofMillis(10));
+        append(spool, "e0", "e1", "e2", "e3", "e4");
+        awaitInserted(5);
+        spool.stop();
+
+        AuditSpool restarted = start(Duration.ofMillis(10));
+        append(restarted, "e5");
+        awaitInserted(6);
+        restarted.stop();
+
+        assertThat(inserted).containsExactly("e0", "e1", "e2", "e3", "e4", "e5");
+    }
+
+    @Test
+    void eventsSpooledWhileDatabaseIsDownAreReplayedAfterRestart() throws Exception {
+        failure.set(new DataAccessResourceFailureException("connection refused"));
+        AuditSpool spool = start(Duration.ofMillis(10));
+        append(spool, "e0", "e1", "e2");
+        awaitReplayFailure();
+        spool.stop();
+        assertThat(inserted).isEmpty();
+
+        failure.set(null);
+        start(Duration.ofMillis(10));
+        awaitInserted(3);
+        assertThat(inserted).containsExactly("e0", "e1", "e2");
+    }
+
+    @Test
+    void tornRecordEndsTheSegment() throws Exception {
+        failure.set(new DataAccessResourceFailureException("connection refused"));
+        AuditSpool spool = start(Duration.ofMillis(10));
+        append(spool, "e0", "e1", "e2");
+        awaitReplayFailure();
+        spool.stop();
+
+        // Crash au milieu de l'écriture du dernier enregistrement : fin de charge utile manquante
+        Path segment = firstSegment();
+        List<int[]> records = records(segment);
+        int[] last = records.get(2);
+        writeAt(segment, last[0] + last[1] - 4, new byte[4]);
+
+        failure.set(null);
+        AuditSpool restarted = start(Duration.ofMillis(10));
+        append(restarted, "e3");
+        awaitInserted(3);
+        assertThat(inserted).containsExactly("e0", "e1", "e3");
+    }
+
+    @Test
+    void crcMismatchSkipsTheRestOfTheSegment() throws Exception {
+        failure.set(new DataAccessResourceFailureException("connection refused"));
+        AuditSpool spool = start(Duration.ofMillis(10));
+        append(spool, "e0", "e1", "e2");
+        awaitReplayFailure();
+        spool.stop();
+
+        Path segment = firstSegment();
+        int[] second = records(segment).get(1);
+        writeAt(segment, second[0] + 8, new byte[]{0x7f});
+
+        failure.set(null);
+        AuditSpool restarted = start(Duration.ofMillis(10));
+        append(restarted, "e3");
+        awaitInserted(2);
+        assertThat(inserted).containsExactly("e0", "e3");
+    }
+
+    @Test
+    void recordLengthBeyondSegmentIsTreatedAsEndOfData() throws Exception {
+        failure.set(new DataAccessResourceFailureException("connection refused"));
+        AuditSpool spool = start(Duration.ofMillis(10));
+        append(spool, "e0", "e1");
+        awaitReplayFailure();
+        spool.stop();
+
+        Path segment = firstSegment();
+        int[] second = records(segment).get(1);
+        writeAt(segment, second[0], ByteBuffer.allocate(4).putInt(Integer.MAX_VALUE - 1).array());
+
+        failure.set(null);
+        start(Duration.ofMillis(10));
+        awaitInserted(1);
+        assertThat(inserted).containsExactly("e0");
+    }
+
+    @Test
+    void rejectedEventGoesToDeadLetterAndReplayMovesOn() throws Exception {
+        AuditSpool spool = start(Duration.ofMillis(10));
+        append(spool, "e0", "e1", "e2", "bad", "e4", "e5", "e6");
+        awaitInserted(6);
+        spool.stop();
+
+        assertThat(inserted).containsExactly("e0", "e1", "e2", "e4", "e5", "e6");
+        List<String> deadLetters = Files.readAllLines(directory.resolve("dead-letter.ndjson"));
+        assertThat(deadLetters).singleElement().asString()
+            .contains("\"details\":\"bad\"")
+            .contains("value too long");
+        assertThat(meterRegistry.get("iam.audit.spool.dead.letters").counter().count()).isEqualTo(1);
+
+        // Le point de reprise a dépassé l'événement écarté
+        AuditSpool restarted = start(Duration.ofMillis(10));
+        append(restarted, "e7");
+        awaitInserted(7);
+        assertThat(inserted).endsWith("e6", "e7").hasSize(7);
+    }
+
+    @Test
+    void stopReplaysWhatIsLeft() throws Exception {
+        failure.set(new DataAccessResourceFailureException("connection refused"));
+        AuditSpool spool = start(Duration.ofHours(1));
+        append(spool, "e0", "e1", "e2");
+        awaitReplayFailure();
+
+        // Base revenue pendant l'attente de la nouvelle tentative : l'arrêt rejoue sans attendre
+        failure.set(null);
+        spool.stop();
+        assertThat(inserted).containsExactly("e0", "e1", "e2");
+    }
+
+    @Test
+    void segmentsArePreallocated() throws Exception {
+        start(Duration.ofMillis(10));
+        Path segment = firstSegment();
+        assertThat(Files.size(segment)).isEqualTo(DataSize.ofKilobytes(4).toBytes());
+        assertThat(records(segment)).isEmpty();
+    }
+
+    private AuditSpool start(Duration retryBackoff) throws IOException {
+        AuditLogBatchInserter batchInserter = mock(AuditLogBatchInserter.class);
+        doAnswer(invocation -> {
+            List<AuditLog> batch = invocation.getArgument(0);
+            RuntimeException current = failure.get();
+            if (current != null) {
+                throw current;
+            }
+            if (batch.stream().anyMatch(auditLog -> "bad".equals(auditLog.getDetails()))) {
+                throw new DataIntegrityViolationException("ERROR: value too long for type character varying(255)");
+            }
+            batch.forEach(auditLog -> inserted.add(auditLog.getDetails()));
+            return null;
+        }).when(batchInserter).insert(any());
+
+        meterRegistry = new SimpleMeterRegistry();
+        AuditSpool spool = new AuditSpool(batchInserter, meterRegistry, new ObjectMapper());
+        ReflectionTestUtils.setField(spool, "directory", directory.toString());
+        ReflectionTestUtils.setField(spool, "segmentSize", DataSize.ofKilobytes(4));
+        ReflectionTestUtils.setField(spool, "maxSegments", 16);
+        ReflectionTestUtils.setField(spool, "fsyncPolicy", AuditSpool.FsyncPolicy.ALWAYS);
+        ReflectionTestUtils.setField(spool, "fsyncInterval", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(spool, "replayBatchSize", 100);
+        ReflectionTestUtils.setField(spool, "pollInterval", Duration.ofMillis(10));
+        ReflectionTestUtils.setField(spool, "retryBackoff", retryBackoff);
+        ReflectionTestUtils.setField(spool, "maxRetryBackoff", retryBackoff);
+        ReflectionTestUtils.setField(spool, "shutdownTimeout", Duration.ofSeconds(5));
+        spool.start();
+        started.add(spool);
+        return spool;
+    }
+
+    private static void append(AuditSpool spool, String... details) throws IOException {
+        for (String detail : details) {
+            spool.append(AuditLog.builder()
+                .action("LOGIN")
+                .username("jdoe")
+                .result("SUCCESS")
+                .details(detail)
+                .timestamp(LocalDateTime.now())
+                .build());
+        }
+        spool.flush();
+    }
+
+    private void awaitInserted(int count) {
+        await().atMost(Duration.ofSeconds(5)).until(() -> inserted.size() >= count);
+    }
+
+    private void awaitReplayFailure() {
+        await().atMost(Duration.ofSeconds(5))
+            .until(() -> meterRegistry.get("iam.audit.spool.replay.failures").counter().count() >= 1);
+    }
+
+    private Path firstSegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".seg")).sorted().findFirst().orElseThrow();
+        }
+    }
+
+    /**
+     * Décalage et taille totale (en-tête compris) des enregistrements d'un segment
+     */
+    private static List<int[]> records(Path segment) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+        List<int[]> records = new ArrayList<>();
+        for (int offset = 0; offset + 8 <= buffer.capacity(); ) {
+            int length = buffer.getInt(offset);
+            if (length <= 0) {
+                break;
+            }
+            records.add(new int[]{offset, 8 + length});
+            offset += 8 + length;
+        }
+        return records;
+    }
+
+    private static void writeAt(Path file, int offset, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes), offset);
+        }
+    }
+
+    private static void stopQuietly(AuditSpool spool) {
+        try {
+            spool.stop();
+        } catch (Exception e) {
+            // déjà arrêté
+        }
+    }
+}
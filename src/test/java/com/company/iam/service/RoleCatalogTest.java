@@ -0,0 +1,43 @@
+// service/RoleCatalogTest.java
+package com.company.iam.service;
+
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.admin.client.resource.RolesResource;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * ETag par rôle : calculé à la construction de l'instantané, inchangé d'un appel à l'autre
+ */
+class RoleCatalogTest {
+
+    @Test
+    void roleTagIsComputedOncePerSnapshot() {
+        RoleRepresentation admin = new RoleRepresentation("ADMIN", "Administrators", false);
+        admin.setId("role-admin");
+        Keycloak keycloak = mock(Keycloak.class);
+        RealmResource realmResource = mock(RealmResource.class);
+        RolesResource rolesResource = mock(RolesResource.class);
+        when(keycloak.realm("test")).thenReturn(realmResource);
+        when(realmResource.roles()).thenReturn(rolesResource);
+        when(rolesResource.list()).thenReturn(List.of(admin));
+
+        RoleCatalog roleCatalog = new RoleCatalog(keycloak);
+        ReflectionTestUtils.setField(roleCatalog, "realm", "test");
+        roleCatalog.refresh();
+
+        ETagged<RoleRepresentation> first = roleCatalog.findTagged("ADMIN").orElseThrow();
+        assertThat(first.value()).isSameAs(admin);
+        assertThat(first.etag()).isEqualTo(ETagged.etagOf("role-admin", "ADMIN", "Administrators", false));
+        assertThat(roleCatalog.findTagged("ADMIN").orElseThrow().etag()).isSameAs(first.etag());
+        assertThat(roleCatalog.findTagged("MISSING")).isEmpty();
+    }
+}
@@ -0,0 +1,78 @@
+// service/RoleMembershipIndexTest.java
+package com.company.iam.service;
+
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.admin.client.resource.RoleResource;
+import org.keycloak.admin.client.resource.RolesResource;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reconstructions concurrentes : une construction lente commencée avant une modification
+ * ne doit pas écraser l'instantané qui en tient compte
+ */
+class RoleMembershipIndexTest {
+
+    @Test
+    void refreshDuringABuildRebuildsAfterItInsteadOfRacing() throws Exception {
+        CountDownLatch firstBuildStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstBuild = new CountDownLatch(1);
+        AtomicInteger builds = new AtomicInteger();
+
+        UserRepresentation member = new UserRepresentation();
+        member.setId("u1");
+        RoleResource roleResource = mock(RoleResource.class);
+        // Première construction : u1 porte encore USER ; le rôle lui est retiré pendant la construction
+        when(roleResource.getUserMembers(anyInt(), anyInt())).thenAnswer(invocation -> {
+            if (builds.incrementAndGet() == 1) {
+                firstBuildStarted.countDown();
+                releaseFirstBuild.await(5, TimeUnit.SECONDS);
+                return List.of(member);
+            }
+            return List.of();
+        });
+        when(roleResource.getRoleGroupMembers(anyInt(), anyInt())).thenReturn(Set.of());
+
+        Keycloak keycloak = mock(Keycloak.class);
+        RealmResource realmResource = mock(RealmResource.class);
+        RolesResource rolesResource = mock(RolesResource.class);
+        when(keycloak.realm("test")).thenReturn(realmResource);
+        when(realmResource.roles()).thenReturn(rolesResource);
+        when(rolesResource.get("USER")).thenReturn(roleResource);
+        RoleCatalog roleCatalog = mock(RoleCatalog.class);
+        when(roleCatalog.roles()).thenReturn(List.of(new RoleRepresentation("USER", null, false)));
+        when(roleCatalog.expand(any())).thenAnswer(invocation -> new HashSet<>(invocation.getArgument(0)));
+
+        RoleMembershipIndex index = new RoleMembershipIndex(keycloak, roleCatalog);
+        ReflectionTestUtils.setField(index, "realm", "test");
+        ReflectionTestUtils.setField(index, "pageSize", 100);
+
+        Thread scheduled = new Thread(index::refresh);
+        scheduled.start();
+        assertThat(firstBuildStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Demande de reconstruction (après retrait du rôle) pendant la construction planifiée
+        index.refresh();
+        releaseFirstBuild.countDown();
+        scheduled.join(5_000);
+
+        assertThat(builds).hasValue(2);
+        assertThat(index.effectiveRoles("u1")).isEmpty();
+    }
+}
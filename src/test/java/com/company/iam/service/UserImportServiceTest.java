@@ -0,0 +1,111 @@
+// service/UserImportServiceTest.java
+package com.company.iam.service;
+
+import com.company.iam.model.dto.UserDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.Keycloak;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Audit de l'import : chaque utilisateur créé est audité, même si la réponse ne peut plus être écrite
+ */
+class UserImportServiceTest {
+
+    private final AtomicInteger provisioned = new AtomicInteger();
+    private final List<String> audited = new ArrayList<>();
+    private BulkWorkerPool bulkWorkerPool;
+    private UserImportService importService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        UserService userService = mock(UserService.class);
+        when(userService.provisionUser(any())).thenAnswer(invocation -> {
+            Thread.sleep(20);
+            UserDTO user = invocation.getArgument(0);
+            user.setId("id-" + provisioned.incrementAndGet());
+            return user;
+        });
+        AuditService auditService = mock(AuditService.class);
+        doAnswer(invocation -> {
+            synchronized (audited) {
+                audited.addAll(invocation.getArgument(3));
+            }
+            return null;
+        }).when(auditService).logActions(eq("CREATE_USER"), eq("admin"), eq("SUCCESS"), anyList());
+        Validator validator = mock(Validator.class);
+        when(validator.validate(any())).thenReturn(Set.of());
+
+        bulkWorkerPool = new BulkWorkerPool(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(bulkWorkerPool, "threads", 4);
+        ReflectionTestUtils.setField(bulkWorkerPool, "queueCapacity", 100);
+        bulkWorkerPool.init();
+
+        importService = new UserImportService(mock(Keycloak.class), userService, auditService, bulkWorkerPool,
+            mock(UserSearchIndex.class), new ObjectMapper(), validator);
+        ReflectionTestUtils.setField(importService, "realm", "test");
+        ReflectionTestUtils.setField(importService, "parallelism", 4);
+        ReflectionTestUtils.setField(importService, "partialImportBatchSize", 500);
+        ReflectionTestUtils.setField(importService, "auditBatchSize", 3);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        bulkWorkerPool.shutdown();
+    }
+
+    @Test
+    void everyCreatedUserIsAudited() throws IOException {
+        importService.importUsers(ndjson(10), UserImportService.Format.NDJSON, false, "admin",
+            OutputStream.nullOutputStream());
+
+        assertThat(provisioned).hasValue(10);
+        assertThat(audited).hasSize(10).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void usersStillInFlightAreAuditedWhenTheClientDisconnects() {
+        OutputStream disconnected = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThatThrownBy(() -> importService.importUsers(ndjson(50), UserImportService.Format.NDJSON, false,
+            "admin", disconnected)).isInstanceOf(IOException.class);
+
+        // Les tâches déjà soumises ont abouti avant le retour : toutes auditées
+        assertThat(provisioned.get()).isPositive();
+        assertThat(audited).hasSize(provisioned.get());
+    }
+
+    private static ByteArrayInputStream ndjson(int users) {
+        String body = IntStream.range(0, users)
+            .mapToObj(i -> "{\"username\":\"user" + i + "\",\"email\":\"user" + i + "@example.com\",\"enabled\":true}")
+            .collect(Collectors.joining("\n"));
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
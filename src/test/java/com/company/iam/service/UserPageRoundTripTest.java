@@ -0,0 +1,175 @@
+// service/UserPageRoundTripTest.java
+package com.company.iam.service;
+
+import com.company.iam.model.dto.UserDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.*;
+import org.keycloak.representations.idm.GroupRepresentation;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.mockito.stubbing.Answer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Allers-retours Keycloak d'une page de getAllUsers (10 / 100 / 500 utilisateurs) : chemin N+1
+ * (un listEffective() par utilisateur, index non construit) contre l'index rôle → membres,
+ * dont la construction parcourt aussi les groupes et sous-groupes portant un rôle.
+ */
+class UserPageRoundTripTest {
+
+    private static final int USERS = 500;
+    private static final List<String> ROLES = List.of("USER", "ADMIN", "AUDITOR");
+
+    private final AtomicInteger roundTrips = new AtomicInteger();
+    private UserService userService;
+    private RoleMembershipIndex roleMembershipIndex;
+
+    @BeforeEach
+    void setUp() {
+        List<UserRepresentation> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            UserRepresentation user = new UserRepresentation();
+            user.setId("user-" + i);
+            user.setUsername("user" + i);
+            user.setEnabled(true);
+            users.add(user);
+        }
+        List<RoleRepresentation> roles = ROLES.stream()
+            .map(name -> new RoleRepresentation(name, null, false))
+            .toList();
+
+        Keycloak keycloak = mock(Keycloak.class);
+        RealmResource realmResource = mock(RealmResource.class);
+        UsersResource usersResource = mock(UsersResource.class);
+        RolesResource rolesResource = mock(RolesResource.class);
+        GroupsResource groupsResource = mock(GroupsResource.class);
+        when(keycloak.realm("test")).thenReturn(realmResource);
+        when(realmResource.users()).thenReturn(usersResource);
+        when(realmResource.roles()).thenReturn(rolesResource);
+        when(realmResource.groups()).thenReturn(groupsResource);
+
+        when(usersResource.list(anyInt(), anyInt())).thenAnswer(roundTrip(invocation ->
+            page(users, invocation.getArgument(0), invocation.getArgument(1))));
+        when(rolesResource.list()).thenAnswer(roundTrip(invocation -> roles));
+
+        // Chemin N+1 : chaque utilisateur porte USER
+        RoleScopeResource effectiveRoles = mock(RoleScopeResource.class);
+        RoleMappingResource roleMappings = mock(RoleMappingResource.class);
+        UserResource userResource = mock(UserResource.class);
+        when(usersResource.get(anyString())).thenReturn(userResource);
+        when(userResource.roles()).thenReturn(roleMappings);
+        when(roleMappings.realmLevel()).thenReturn(effectiveRoles);
+        when(effectiveRoles.listEffective()).thenAnswer(roundTrip(invocation -> List.of(roles.get(0))));
+
+        // AUDITOR via le groupe « audit » (user-1) et son sous-groupe « audit-eu » (user-2)
+        GroupRepresentation audit = group("audit");
+        GroupRepresentation auditEu = group("audit-eu");
+        stubGroup(groupsResource, audit, List.of(users.get(1)), List.of(auditEu));
+        stubGroup(groupsResource, auditEu, List.of(users.get(2)), List.of());
+
+        // Mappings directs : USER pour tous, ADMIN un sur dix
+        for (RoleRepresentation role : roles) {
+            List<UserRepresentation> members = switch (role.getName()) {
+                case "USER" -> users;
+                case "ADMIN" -> users.stream().filter(user -> user.getId().endsWith("0")).toList();
+                default -> List.of();
+            };
+            Set<GroupRepresentation> groups = "AUDITOR".equals(role.getName()) ? Set.of(audit) : Set.of();
+            RoleResource roleResource = mock(RoleResource.class);
+            when(rolesResource.get(role.getName())).thenReturn(roleResource);
+            when(roleResource.getUserMembers(anyInt(), anyInt())).thenAnswer(roundTrip(invocation ->
+                page(members, invocation.getArgument(0), invocation.getArgument(1))));
+            when(roleResource.getRoleGroupMembers(anyInt(), anyInt())).thenAnswer(roundTrip(invocation -> groups));
+        }
+
+        RoleCatalog roleCatalog = new RoleCatalog(keycloak);
+        ReflectionTestUtils.setField(roleCatalog, "realm", "test");
+        roleMembershipIndex = new RoleMembershipIndex(keycloak, roleCatalog);
+        ReflectionTestUtils.setField(roleMembershipIndex, "realm", "test");
+        ReflectionTestUtils.setField(roleMembershipIndex, "pageSize", 1000);
+
+        userService = new UserService(keycloak, mock(AuditService.class), roleMembershipIndex, roleCatalog,
+            mock(UserSearchIndex.class), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(userService, "realm", "test");
+        ReflectionTestUtils.setField(userService, "userCacheMaximumSize", 10_000L);
+        ReflectionTestUtils.setField(userService, "userCacheTtl", Duration.ofSeconds(30));
+        userService.initUserCache();
+        roleCatalog.refresh();
+        roundTrips.set(0);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 100, 500})
+    void pageWithoutIndexCostsOneRoundTripPerUser(int size) {
+        assertThat(userService.getAllUsers(0, size)).hasSize(size);
+        assertThat(roundTrips).hasValue(1 + size);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 100, 500})
+    void pageWithIndexCostsOneRoundTrip(int size) {
+        roleMembershipIndex.refresh();
+        roundTrips.set(0);
+
+        assertThat(userService.getAllUsers(0, size)).hasSize(size);
+        assertThat(roundTrips).hasValue(1);
+    }
+
+    @Test
+    void indexBuildWalksRoleGroupsAndSubGroups() {
+        roleMembershipIndex.refresh();
+
+        // 3 rôles × (membres directs + groupes), puis 2 groupes × (membres + sous-groupes)
+        assertThat(roundTrips).hasValue(3 * 2 + 2 * 2);
+        List<UserDTO> page = userService.getAllUsers(0, 20);
+        assertThat(page.get(1).getRoles()).containsExactly("AUDITOR", "USER");
+        assertThat(page.get(2).getRoles()).containsExactly("AUDITOR", "USER");
+        assertThat(page.get(10).getRoles()).containsExactly("ADMIN", "USER");
+        assertThat(page.get(11).getRoles()).containsExactly("USER");
+    }
+
+    private void stubGroup(GroupsResource groupsResource, GroupRepresentation group,
+                           List<UserRepresentation> members, List<GroupRepresentation> subGroups) {
+        GroupResource groupResource = mock(GroupResource.class);
+        when(groupsResource.group(group.getId())).thenReturn(groupResource);
+        when(groupResource.members(anyInt(), anyInt(), anyBoolean())).thenAnswer(roundTrip(invocation -> members));
+        when(groupResource.getSubGroups(anyInt(), anyInt(), anyBoolean()))
+            .thenAnswer(roundTrip(invocation -> subGroups));
+    }
+
+    private static GroupRepresentation group(String name) {
+        GroupRepresentation group = new GroupRepresentation();
+        group.setId(name + "-id");
+        group.setName(name);
+        return group;
+    }
+
+    private <T> Answer<T> roundTrip(Answer<T> answer) {
+        return invocation -> {
+            roundTrips.incrementAndGet();
+            return answer.answer(invocation);
+        };
+    }
+
+    private static <T> List<T> page(List<T> items, int first, int max) {
+        return items.subList(Math.min(first, items.size()), Math.min(first + max, items.size()));
+    }
+}
@@ -0,0 +1,84 @@
+// service/UserSearchIndexTest.java
+package com.company.iam.service;
+
+import com.company.iam.model.dto.UserDTO;
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.admin.client.resource.UsersResource;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Recherche type-ahead : requêtes de plusieurs mots et plafond de candidats
+ */
+class UserSearchIndexTest {
+
+    @Test
+    void multiWordQueryMatchesAllWordsInAnyOrder() {
+        UserSearchIndex index = index(100,
+            user("jdupont", "jean.dupont@acme.com", "Jean", "Dupont"),
+            user("jmartin", "jean.martin@acme.com", "Jean", "Martin"),
+            user("pdupont", "paul.dupont@acme.com", "Paul", "Dupont"));
+
+        assertThat(usernames(index, "jean dupont")).containsExactly("jdupont");
+        assertThat(usernames(index, "Dupont  Jean")).containsExactly("jdupont");
+        assertThat(usernames(index, "jean dup")).containsExactly("jdupont");
+        assertThat(usernames(index, "dupont")).containsExactlyInAnyOrder("jdupont", "pdupont");
+        assertThat(usernames(index, "jean dupont zzz")).isEmpty();
+    }
+
+    @Test
+    void exactMatchesSurviveTheCandidateCap() {
+        List<UserRepresentation> users = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            users.add(user("dup" + i, "dup" + i + "@acme.com", "Someone", "Else"));
+        }
+        users.add(user("mlevy", "m.levy@acme.com", "Marc", "Dup"));
+        UserSearchIndex index = index(3, users.toArray(UserRepresentation[]::new));
+
+        // Les préfixes de username remplissent le plafond, le nom exact reste candidat
+        assertThat(usernames(index, "dup")).contains("mlevy");
+    }
+
+    private static List<String> usernames(UserSearchIndex index, String query) {
+        return index.search(query, 20).orElseThrow().stream().map(UserDTO::getUsername).toList();
+    }
+
+    private static UserSearchIndex index(int maxCandidates, UserRepresentation... users) {
+        Keycloak keycloak = mock(Keycloak.class);
+        RealmResource realmResource = mock(RealmResource.class);
+        UsersResource usersResource = mock(UsersResource.class);
+        when(keycloak.realm("test")).thenReturn(realmResource);
+        when(realmResource.users()).thenReturn(usersResource);
+        when(usersResource.search(isNull(), anyInt(), anyInt(), isNull(), eq(true))).thenReturn(List.of(users));
+
+        UserSearchIndex index = new UserSearchIndex(keycloak);
+        ReflectionTestUtils.setField(index, "realm", "test");
+        ReflectionTestUtils.setField(index, "pageSize", 1000);
+        ReflectionTestUtils.setField(index, "maxCandidates", maxCandidates);
+        index.reconcile();
+        return index;
+    }
+
+    private static UserRepresentation user(String username, String email, String firstName, String lastName) {
+        UserRepresentation user = new UserRepresentation();
+        user.setId("id-" + username);
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setEnabled(true);
+        return user;
+    }
+}
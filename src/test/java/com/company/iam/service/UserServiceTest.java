@@ -0,0 +1,169 @@
+// service/UserServiceTest.java
+package com.company.iam.service;
+
+import com.company.iam.model.dto.UserDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.*;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Provisionnement : nombre exact d'appels Keycloak par création, sans relecture de l'utilisateur créé
+ */
+class UserServiceTest {
+
+    private static final String USER_ID = "0b6f8c5e-4a1d-4c1e-9a57-3c2f4d6e8a10";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private UsersResource usersResource;
+    private UserResource userResource;
+    private RoleMappingResource roleMappings;
+    private RoleScopeResource realmRoles;
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        Keycloak keycloak = mock(Keycloak.class);
+        RealmResource realmResource = mock(RealmResource.class);
+        usersResource = mock(UsersResource.class);
+        userResource = mock(UserResource.class);
+        roleMappings = mock(RoleMappingResource.class);
+        realmRoles = mock(RoleScopeResource.class);
+        when(keycloak.realm("test")).thenReturn(realmResource);
+        when(realmResource.users()).thenReturn(usersResource);
+        when(usersResource.get(USER_ID)).thenReturn(userResource);
+        when(userResource.roles()).thenReturn(roleMappings);
+        when(roleMappings.realmLevel()).thenReturn(realmRoles);
+
+        Response created = mock(Response.class);
+        when(created.getStatus()).thenReturn(201);
+        when(created.getHeaderString("Location"))
+            .thenReturn("http://keycloak/admin/realms/test/users/" + USER_ID);
+        when(usersResource.create(any())).thenReturn(created);
+
+        RoleCatalog roleCatalog = mock(RoleCatalog.class);
+        when(roleCatalog.find(anyString())).thenAnswer(invocation ->
+            Optional.of(new RoleRepresentation(invocation.getArgument(0), null, false)));
+        when(roleCatalog.expand(any())).thenAnswer(invocation ->
+            new HashSet<>(invocation.<Collection<String>>getArgument(0)));
+
+        userService = new UserService(keycloak, mock(AuditService.class), mock(RoleMembershipIndex.class),
+            roleCatalog, mock(UserSearchIndex.class), meterRegistry);
+        ReflectionTestUtils.setField(userService, "realm", "test");
+        ReflectionTestUtils.setField(userService, "userCacheMaximumSize", 100L);
+        ReflectionTestUtils.setField(userService, "userCacheTtl", Duration.ofSeconds(30));
+        userService.initUserCache();
+    }
+
+    @Test
+    void createWithoutRolesIsOneCall() {
+        UserDTO created = userService.provisionUser(user(null));
+
+        verify(usersResource).create(any());
+        verifyNoInteractions(realmRoles);
+        assertNothingReadBack();
+        assertThat(recordedRoundTrips()).isEqualTo(1);
+        assertThat(created.getId()).isEqualTo(USER_ID);
+        assertThat(created.getRoles()).containsExactly("default-roles-test");
+    }
+
+    @Test
+    void createWithRolesIsTwoCalls() {
+        UserDTO created = userService.provisionUser(user(List.of("USER", "ADMIN")));
+
+        verify(usersResource).create(any());
+        ArgumentCaptor<List<RoleRepresentation>> added = ArgumentCaptor.captor();
+        verify(realmRoles).add(added.capture());
+        verifyNoMoreInteractions(realmRoles);
+        assertNothingReadBack();
+        assertThat(added.getValue()).extracting(RoleRepresentation::getName).containsExactly("USER", "ADMIN");
+        assertThat(recordedRoundTrips()).isEqualTo(2);
+        assertThat(created.getRoles()).containsExactly("ADMIN", "USER", "default-roles-test");
+    }
+
+    @Test
+    void passwordTravelsWithTheCreateRequest() {
+        userService.provisionUser(user(null));
+
+        ArgumentCaptor<UserRepresentation> sent = ArgumentCaptor.forClass(UserRepresentation.class);
+        verify(usersResource).create(sent.capture());
+        assertThat(sent.getValue().getCredentials()).singleElement()
+            .satisfies(credential -> assertThat(credential.getValue()).isEqualTo("s3cret!"));
+        verify(userResource, never()).resetPassword(any());
+    }
+
+    @Test
+    void cachedUserMatchesKeycloakNormalization() {
+        UserDTO created = userService.provisionUser(user(null));
+
+        assertThat(created.getUsername()).isEqualTo("jdoe");
+        assertThat(created.getEmail()).isEqualTo("john.doe@example.com");
+        assertThat(userService.getUserById(USER_ID)).isSameAs(created);
+        verify(userResource, never()).toRepresentation();
+    }
+
+    @Test
+    void partialImportCarriesTheRealmDefaultRole() {
+        assertThat(userService.importRepresentation(user(null)).getRealmRoles())
+            .containsExactly("default-roles-test");
+        assertThat(userService.importRepresentation(user(List.of("USER", "default-roles-test"))).getRealmRoles())
+            .containsExactly("USER", "default-roles-test");
+    }
+
+    @Test
+    void updateWithMixedCaseEmailIsNotAChange() {
+        UserRepresentation stored = new UserRepresentation();
+        stored.setId(USER_ID);
+        stored.setUsername("jdoe");
+        stored.setEmail("john.doe@example.com");
+        stored.setFirstName("John");
+        stored.setLastName("Doe");
+        stored.setEnabled(true);
+        when(userResource.toRepresentation()).thenReturn(stored);
+
+        userService.updateUser(USER_ID, user(null), "admin");
+
+        verify(userResource, never()).update(any());
+    }
+
+    private void assertNothingReadBack() {
+        verify(userResource, never()).toRepresentation();
+        verify(realmRoles, never()).listEffective();
+        verify(realmRoles, never()).listAll();
+        verify(usersResource, never()).search(anyString());
+        verify(usersResource, never()).list(any(), any());
+    }
+
+    private double recordedRoundTrips() {
+        return meterRegistry.get("iam.users.create.upstream.calls").summary().totalAmount();
+    }
+
+    private static UserDTO user(List<String> roles) {
+        return UserDTO.builder()
+            .username("JDoe")
+            .email("John.Doe@Example.com")
+            .firstName("John")
+            .lastName("Doe")
+            .password("s3cret!")
+            .enabled(true)
+            .roles(roles)
+            .build();
+    }
+}
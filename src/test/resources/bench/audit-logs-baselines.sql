@@ -0,0 +1,4 @@
+-- Référence non partitionnée, mêmes lignes que audit_logs, mesurée d'abord sans index
+CREATE TABLE audit_logs_flat (LIKE audit_logs INCLUDING DEFAULTS);
+INSERT INTO audit_logs_flat SELECT * FROM audit_logs;
+ALTER TABLE audit_logs_flat ADD PRIMARY KEY (id);
@@ -0,0 +1,5 @@
+-- Puis avec les index de V1 (construits après chargement)
+CREATE INDEX ON audit_logs_flat (username, action, result, timestamp);
+CREATE INDEX ON audit_logs_flat (username, timestamp DESC);
+CREATE INDEX ON audit_logs_flat (action, timestamp);
+CREATE INDEX ON audit_logs_flat (action, result, timestamp);
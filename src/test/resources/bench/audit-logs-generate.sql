@@ -0,0 +1,14 @@
+-- Événements d'audit synthétiques g = ${first}..${last} sur ${rows} au total, répartis régulièrement
+-- sur les ${days} derniers jours (g = 1 le plus récent). 200 000 utilisateurs ;
+-- 80 % LOGIN, 10 % LOGOUT, 10 % UPDATE_USER ; un événement sur 17 en échec.
+-- Colonnes renseignées comme par AuditService (user_id, user_agent et resource restent NULL),
+-- encodées comme en V2 (codes smallint, inet, modèle de détail + valeur).
+INSERT INTO audit_logs (action, username, ip_address, result, detail_template, detail_value, timestamp)
+SELECT CASE g % 10 WHEN 0 THEN 2 WHEN 1 THEN 4 ELSE 1 END,
+       'user' || (g % 200000),
+       ('10.' || (g / 65536 % 256) || '.' || (g / 256 % 256) || '.' || (g % 256))::inet,
+       CASE WHEN g % 17 = 0 THEN 2 ELSE 1 END,
+       CASE WHEN g % 10 = 0 THEN 3 WHEN g % 10 = 1 THEN 5 WHEN g % 17 = 0 THEN 2 ELSE 1 END,
+       CASE WHEN g % 10 = 1 THEN md5(g::text)::uuid::text END,
+       LOCALTIMESTAMP - (g::float8 / ${rows}) * INTERVAL '${days} days'
+FROM generate_series(${first}, ${last}) g;
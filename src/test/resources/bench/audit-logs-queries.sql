@@ -0,0 +1,18 @@
+-- Requêtes de AuditLogRepository, {table} remplacé par chaque table comparée.
+-- Codes : action LOGIN = 1, LOGOUT = 2 ; result FAILURE = 2.
+
+-- name: Failures of a user, last 15 min
+SELECT count(*) FROM {table}
+WHERE username = 'user42' AND action = 1 AND result = 2 AND timestamp > LOCALTIMESTAMP - INTERVAL '15 minutes';
+
+-- name: History of a user
+SELECT * FROM {table} WHERE username = 'user42' ORDER BY timestamp DESC;
+
+-- name: Action between, last hour
+SELECT * FROM {table}
+WHERE action = 2 AND timestamp BETWEEN LOCALTIMESTAMP - INTERVAL '1 hour' AND LOCALTIMESTAMP;
+
+-- name: Failed logins, last 15 min
+SELECT * FROM {table}
+WHERE action = 1 AND result = 2 AND timestamp > LOCALTIMESTAMP - INTERVAL '15 minutes'
+ORDER BY timestamp;